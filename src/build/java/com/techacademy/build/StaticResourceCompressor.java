@@ -0,0 +1,71 @@
+package com.techacademy.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+// 静的ファイル (css/js) の圧縮版 (.gz / .br) を作成する (ビルド時に実行。pom.xml)
+/*    ビルドする環境のコマンドに依存せずJVM内で圧縮するため、どの環境でも同じ内容となる
+ *    (gzipのヘッダの更新日時は0。brotliは品質・ウィンドウサイズが同じであれば同じ結果となる)
+ *    ソースファイルのままjavaコマンドで実行するため、このファイル以外のクラス (brotli4jを除く) に依存しないこと
+ *    使い方: StaticResourceCompressor <ディレクトリ>    */
+public final class StaticResourceCompressor {
+
+    // 圧縮する拡張子
+    private static final List<String> EXTENSIONS = List.of(".css", ".js");
+
+    private StaticResourceCompressor() {
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: StaticResourceCompressor <directory>");
+        }
+        Path directory = Paths.get(args[0]);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        Brotli4jLoader.ensureAvailability();
+        Encoder.Parameters brotli = new Encoder.Parameters().setQuality(11).setWindow(22).setMode(Encoder.Mode.TEXT);
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> EXTENSIONS.stream().anyMatch(path.getFileName().toString()::endsWith))
+                    .sorted()
+                    .toList();
+        }
+
+        for (Path file : files) {
+            byte[] content = Files.readAllBytes(file);
+            Files.write(file.resolveSibling(file.getFileName() + ".gz"), gzip(content));
+            Files.write(file.resolveSibling(file.getFileName() + ".br"), Encoder.compress(content, brotli));
+        }
+        System.out.println("Compressed " + files.size() + " static resources in " + directory);
+    }
+
+    // 圧縮率を最大にしてgzip形式で圧縮
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 2);
+        try (OutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,40 @@
+package com.techacademy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.constants.ErrorMessage;
+
+// エラーメッセージの取得 (コントローラでの contains → getErrorName → getErrorValue の流れ)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ErrorMessageBenchmark {
+
+    // メッセージが登録されているもの・されていないもの
+    @Param({ "DATECHECK_ERROR", "PASSWORD_BUSY_ERROR", "SUCCESS" })
+    private ErrorKinds errorKinds;
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        if (ErrorMessage.contains(errorKinds)) {
+            blackhole.consume(ErrorMessage.getErrorName(errorKinds));
+            blackhole.consume(ErrorMessage.getErrorValue(errorKinds));
+        }
+    }
+}
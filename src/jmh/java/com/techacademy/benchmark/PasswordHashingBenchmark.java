@@ -0,0 +1,61 @@
+package com.techacademy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.entity.Employee;
+import com.techacademy.service.EmployeeService;
+
+// パスワードの入力チェック + BCryptによるハッシュ化 (コストごと)
+/*    ハッシュ化処理自体の時間を測るため、専用スレッドプール(BoundedPasswordEncoder)は経由しない    */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+public class PasswordHashingBenchmark {
+
+    // BCryptのコスト (app.password.bcrypt-strength)
+    @Param({ "4", "8", "10", "12" })
+    private int strength;
+
+    private EmployeeService employeeService;
+    private BCryptPasswordEncoder passwordEncoder;
+    private String encodedPassword;
+
+    private final Employee employee = new Employee();
+
+    @Setup
+    public void setup() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        employeeService = new EmployeeService(null, passwordEncoder, null, null, null);
+        encodedPassword = passwordEncoder.encode("password1");
+    }
+
+    // 従業員登録時のパスワードチェック (正規表現 + 文字数 + ハッシュ化)
+    @Benchmark
+    public ErrorKinds employeePasswordCheck() {
+        employee.setPassword("password1");
+        return employeeService.employeePasswordCheck(employee);
+    }
+
+    // ログイン時のパスワード照合
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("password1", encodedPassword);
+    }
+}
@@ -0,0 +1,167 @@
+package com.techacademy.benchmark;
+
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.extras.springsecurity6.dialect.SpringSecurityDialect;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import com.techacademy.repository.ReportListItem;
+import com.techacademy.service.ReportPage;
+
+// 日報一覧画面 (reports/list.html) の描画 (件数ごと)
+/*    アプリケーションと同じテンプレート・方言(Spring Security含む)で、ADMINでログインした状態の描画時間を測る    */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReportListRenderingBenchmark {
+
+    // 表示する日報の件数
+    @Param({ "100", "10000", "100000" })
+    private int rows;
+
+    private SpringTemplateEngine templateEngine;
+    private GenericWebApplicationContext applicationContext;
+    private JakartaServletWebApplication webApplication;
+    private MockServletContext servletContext;
+    private List<ReportListItem> reportList;
+
+    @Setup
+    public void setup() {
+        // spring.thymeleaf.* の既定値と同じ設定 (キャッシュ有効)
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setCacheable(true);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setEnableSpringELCompiler(false);
+        templateEngine.addDialect(new SpringSecurityDialect());
+
+        // sec:authorize の評価に必要なBeanのみを持つアプリケーションコンテキスト
+        servletContext = new MockServletContext();
+        applicationContext = new GenericWebApplicationContext(servletContext);
+        applicationContext.registerBean(DefaultWebSecurityExpressionHandler.class);
+        applicationContext.refresh();
+        servletContext.setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE, applicationContext);
+        webApplication = JakartaServletWebApplication.buildApplication(servletContext);
+
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated("1",
+                null, AuthorityUtils.createAuthorityList("ADMIN")));
+
+        reportList = new ArrayList<>(rows);
+        LocalDate reportDate = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            reportList.add(new Row((long) i + 1, reportDate.plusDays(i % 365), "日報タイトル" + i, "煌木　太郎"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/reports");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        WebContext context = new WebContext(webApplication.buildExchange(request, response));
+        context.setVariable("listSize", rows);
+        context.setVariable("reportPage", new ReportPage(reportList, null, null));
+        context.setVariable("reportList", reportList);
+
+        Writer writer = new BlackholeWriter(blackhole);
+        templateEngine.process("reports/list", context, writer);
+    }
+
+    // 日報一覧の1行分
+    private record Row(Long id, LocalDate reportDate, String title, String employeeName) implements ReportListItem {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDate getReportDate() {
+            return reportDate;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String getEmployeeName() {
+            return employeeName;
+        }
+    }
+
+    // 描画結果を保持せずに破棄する (100000件分の文字列の生成を計測に含めないため)
+    private static final class BlackholeWriter extends Writer {
+
+        private final Blackhole blackhole;
+
+        BlackholeWriter(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            blackhole.consume(cbuf);
+            blackhole.consume(len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            blackhole.consume(str);
+            blackhole.consume(len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.techacademy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.ReportService;
+
+// 日報のタイトル・本文の文字数チェック、パスワードの入力チェック (ハッシュ化の前で終了するもの)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ValidationBenchmark {
+
+    // 入力値の文字数
+    @Param({ "10", "100", "600", "1000" })
+    private int length;
+
+    private ReportService reportService;
+    private EmployeeService employeeService;
+
+    private Report report;
+    private Employee employee;
+    private String halfSizeErrorPassword;
+    private String rangeErrorPassword;
+
+    @Setup
+    public void setup() {
+        // 文字数・入力値のチェックはDBを使用しないため、リポジトリ等はnullとする
+        reportService = new ReportService(null, null, null);
+        employeeService = new EmployeeService(null, null, null, null, null);
+
+        report = new Report();
+        report.setTitle("あ".repeat(length));
+        report.setContent("あ".repeat(length));
+
+        employee = new Employee();
+        halfSizeErrorPassword = "a".repeat(length - 1) + "あ";
+        rangeErrorPassword = "a".repeat(Math.max(length, 16)) + "1";
+    }
+
+    @Benchmark
+    public ErrorKinds reportTitleSizeCheck() {
+        return reportService.reportTitleSizeCheck(report);
+    }
+
+    @Benchmark
+    public ErrorKinds reportContentSizeCheck() {
+        return reportService.reportContentSizeCheck(report);
+    }
+
+    // 半角英数字チェックでエラー (正規表現のみ)
+    @Benchmark
+    public ErrorKinds employeePasswordCheckHalfSizeError() {
+        employee.setPassword(halfSizeErrorPassword);
+        return employeeService.employeePasswordCheck(employee);
+    }
+
+    // 文字数チェックでエラー (正規表現 + 文字数)
+    @Benchmark
+    public ErrorKinds employeePasswordCheckRangeError() {
+        employee.setPassword(rangeErrorPassword);
+        return employeeService.employeePasswordCheck(employee);
+    }
+}
@@ -0,0 +1,102 @@
+package com.techacademy.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 1人の利用者のブラウザ (セッションCookieを保持し、画面からCSRFトークンを取得して送信する)
+class BrowserSession {
+
+    private static final Pattern CSRF_PATTERN = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String forwardedFor;
+    private final EndpointStats stats;
+
+    // forwardedFor : 利用者ごとの接続元アドレス (X-Forwarded-Forで送信する。nullの場合は送信しない)
+    BrowserSession(String baseUrl, String forwardedFor, EndpointStats stats) {
+        this.httpClient = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = baseUrl;
+        this.forwardedFor = forwardedFor;
+        this.stats = stats;
+    }
+
+    // 画面の取得 (200以外はエラーとして記録する)
+    String get(String endpoint, String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(),
+                200, null);
+        return response.body();
+    }
+
+    // フォームの送信 (expectedLocationへのリダイレクト以外はエラーとして記録する)
+    boolean post(String endpoint, String path, String csrfToken, Map<String, String> form, String expectedLocation)
+            throws IOException, InterruptedException {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((name, value) -> body.add(encode(name) + "=" + encode(value)));
+        body.add("_csrf=" + encode(csrfToken));
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        HttpResponse<String> response = send(endpoint, request, 302, expectedLocation);
+        return isSuccess(response, 302, expectedLocation);
+    }
+
+    static String csrfToken(String html) {
+        Matcher matcher = CSRF_PATTERN.matcher(html);
+        if (!matcher.find()) {
+            throw new IllegalStateException("CSRF token not found");
+        }
+        return matcher.group(1);
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request, int expectedStatus,
+            String expectedLocation) throws IOException, InterruptedException {
+        if (forwardedFor != null) {
+            request.header("X-Forwarded-For", forwardedFor);
+        }
+
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request.timeout(Duration.ofSeconds(60)).build(),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            stats.record(endpoint, System.nanoTime() - start, false);
+            throw e;
+        }
+        stats.record(endpoint, System.nanoTime() - start, isSuccess(response, expectedStatus, expectedLocation));
+        return response;
+    }
+
+    private static boolean isSuccess(HttpResponse<String> response, int expectedStatus, String expectedLocation) {
+        if (response.statusCode() != expectedStatus) {
+            return false;
+        }
+        if (expectedLocation == null) {
+            return true;
+        }
+        // リダイレクト先のパスのみを比較する (ログイン失敗時の /login?error 等はエラー)
+        URI location = URI.create(response.headers().firstValue("Location").orElse(""));
+        return expectedLocation.equals(location.getPath()) && location.getQuery() == null;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,62 @@
+package com.techacademy.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+// 負荷試験用のDB (MariaDB4jによるMySQL互換DBを一時ディレクトリで起動する)
+class EmbeddedDatabase implements AutoCloseable {
+
+    static final String DATABASE_NAME = "daily_report_system";
+
+    private final DB db;
+    private final int port;
+
+    private EmbeddedDatabase(DB db, int port) {
+        this.db = db;
+        this.port = port;
+    }
+
+    // 空いているポートで起動し、アプリケーション用のデータベースを作成する
+    static EmbeddedDatabase start() throws Exception {
+        DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
+        builder.setPort(0);
+        builder.addArg("--character-set-server=utf8mb4");
+        builder.addArg("--collation-server=utf8mb4_bin");
+        builder.addArg("--max-connections=500");
+        // rootユーザーで実行する場合はmysqldの起動オプションで明示する必要がある
+        if ("root".equals(System.getProperty("user.name"))) {
+            builder.addArg("--user=root");
+        }
+
+        DB db = DB.newEmbeddedDB(builder.build());
+        db.start();
+
+        // DB.createDB()はmariadbコマンド(ncurses等が必要)を使用するため、JDBCで作成する
+        int port = db.getConfiguration().getPort();
+        try (Connection connection = DriverManager.getConnection("jdbc:mysql://localhost:" + port
+                + "/?user=root&useSSL=false&allowPublicKeyRetrieval=true");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME
+                    + " CHARACTER SET utf8mb4 COLLATE utf8mb4_bin");
+        } catch (SQLException e) {
+            db.stop();
+            throw e;
+        }
+
+        return new EmbeddedDatabase(db, port);
+    }
+
+    String getJdbcUrl() {
+        return "jdbc:mysql://localhost:" + port + "/" + DATABASE_NAME + "?useSSL=false&allowPublicKeyRetrieval=true";
+    }
+
+    @Override
+    public void close() throws Exception {
+        db.stop();
+    }
+}
@@ -0,0 +1,119 @@
+package com.techacademy.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+// エンドポイントごとの件数・エラー件数・応答時間の分布
+class EndpointStats {
+
+    // 応答時間の分布を出力する区切り (ミリ秒)
+    private static final long[] BUCKETS_MILLIS = { 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000 };
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile long startedAt = System.nanoTime();
+
+    void record(String endpoint, long elapsedNanos, boolean success) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        stats.recorder.recordValue(Math.min(elapsedNanos, TimeUnit.MINUTES.toNanos(1)));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    // ウォームアップ分の記録を破棄する
+    void reset() {
+        for (Endpoint stats : endpoints.values()) {
+            stats.recorder.reset();
+            stats.errors.reset();
+        }
+        startedAt = System.nanoTime();
+    }
+
+    // 集計結果の出力 (標準出力に表形式、ファイルにJSON)
+    void report(String scenario, PrintStream out, Path jsonFile) throws IOException {
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        Map<String, Histogram> histograms = new TreeMap<>();
+        Map<String, Long> errors = new TreeMap<>();
+        endpoints.forEach((name, stats) -> {
+            histograms.put(name, stats.recorder.getIntervalHistogram());
+            errors.put(name, stats.errors.sum());
+        });
+
+        out.printf("%n=== %s (%.1f s) ===%n", scenario, seconds);
+        out.printf("%-16s %8s %7s %9s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "req/s", "p50 ms",
+                "p95 ms", "p99 ms", "max ms");
+        histograms.forEach((name, h) -> out.printf("%-16s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", name,
+                h.getTotalCount(), errors.get(name), h.getTotalCount() / seconds, millis(h.getValueAtPercentile(50)),
+                millis(h.getValueAtPercentile(95)), millis(h.getValueAtPercentile(99)), millis(h.getMaxValue())));
+
+        out.printf("%n%-16s", "latency (ms)");
+        for (long bucket : BUCKETS_MILLIS) {
+            out.printf(" %7s", "<=" + bucket);
+        }
+        out.printf(" %7s%n", ">" + BUCKETS_MILLIS[BUCKETS_MILLIS.length - 1]);
+        histograms.forEach((name, h) -> {
+            out.printf("%-16s", name);
+            for (long count : bucketCounts(h)) {
+                out.printf(" %7d", count);
+            }
+            out.println();
+        });
+
+        Files.writeString(jsonFile, toJson(scenario, seconds, histograms, errors));
+        out.printf("%nResult is saved to %s%n", jsonFile.toAbsolutePath());
+    }
+
+    private static long[] bucketCounts(Histogram histogram) {
+        long[] counts = new long[BUCKETS_MILLIS.length + 1];
+        long previous = 0;
+        for (int i = 0; i < BUCKETS_MILLIS.length; i++) {
+            long cumulative = histogram.getCountBetweenValues(0, TimeUnit.MILLISECONDS.toNanos(BUCKETS_MILLIS[i]));
+            counts[i] = cumulative - previous;
+            previous = cumulative;
+        }
+        counts[BUCKETS_MILLIS.length] = histogram.getTotalCount() - previous;
+        return counts;
+    }
+
+    private static String toJson(String scenario, double seconds, Map<String, Histogram> histograms,
+            Map<String, Long> errors) {
+        StringJoiner endpointsJson = new StringJoiner(",", "[", "]");
+        histograms.forEach((name, h) -> {
+            StringJoiner buckets = new StringJoiner(",", "[", "]");
+            long[] counts = bucketCounts(h);
+            for (int i = 0; i < counts.length; i++) {
+                String le = i < BUCKETS_MILLIS.length ? String.valueOf(BUCKETS_MILLIS[i]) : "null";
+                buckets.add("{\"leMillis\":" + le + ",\"count\":" + counts[i] + "}");
+            }
+            endpointsJson.add(String.format(java.util.Locale.ROOT,
+                    "{\"endpoint\":\"%s\",\"count\":%d,\"errors\":%d,\"throughput\":%.2f,"
+                            + "\"p50Millis\":%.3f,\"p95Millis\":%.3f,\"p99Millis\":%.3f,\"maxMillis\":%.3f,\"histogram\":%s}",
+                    name, h.getTotalCount(), errors.get(name), h.getTotalCount() / seconds,
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(95)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getMaxValue()), buckets));
+        });
+        return String.format(java.util.Locale.ROOT, "{\"scenario\":\"%s\",\"durationSeconds\":%.1f,\"endpoints\":%s}%n",
+                scenario, seconds, endpointsJson);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Endpoint {
+        private final Recorder recorder = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,159 @@
+package com.techacademy.loadtest;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.techacademy.DailyReportSystemApplication;
+import com.techacademy.datagen.DataGenerator;
+import com.techacademy.security.LoginThrottle;
+import com.techacademy.service.EmployeeDirectory;
+
+// 負荷試験 (MySQL互換DBとアプリケーションを同一プロセスで起動し、シナリオを実行する)
+/*    mvn -P loadtest -DskipTests verify で実行する。設定はシステムプロパティで指定する
+ *      loadtest.scenario : login-storm (9:00のログイン集中) / submission-peak (17:30の日報提出集中)
+ *      loadtest.users    : 同時に操作する利用者数
+ *      loadtest.warmup   : ウォームアップの秒数 (集計しない)
+ *      loadtest.duration : 計測する秒数
+ *      loadtest.result   : 結果(JSON)の出力先
+ *      loadtest.shared-address : true の場合は全利用者が同一のアドレスから接続する (NAT等を経由する事業所)。
+ *                          既定では利用者ごとに異なるアドレスをX-Forwarded-Forで送信する (プロキシとしてループバックアドレスを信頼する)
+ *      loadtest.dataset.employees / loadtest.dataset.reports / loadtest.dataset.seed
+ *                        : 事前に生成しておくデータの件数・シード (DataGenerator)
+ *    コマンドライン引数は空白で区切ってアプリケーションに渡す (例: --spring.profiles.active=virtual)
+ *    (pom.xmlのloadtest.app-argsは1つの引数として渡されるため、複数の設定を空白区切りで指定できるようにする)    */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = Scenario.of(System.getProperty("loadtest.scenario", "submission-peak"));
+        int users = Integer.getInteger("loadtest.users", 50);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+        int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+        Path resultFile = Path.of(System.getProperty("loadtest.result", "target/loadtest-result.json"));
+        boolean sharedAddress = Boolean.getBoolean("loadtest.shared-address");
+
+        // devtoolsによる再起動はmainメソッドを再実行するため無効にする
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        try (EmbeddedDatabase database = EmbeddedDatabase.start()) {
+
+            // ログイン試行回数の制限は本番と同じ設定で計測する
+            // 利用者ごとのアドレスはX-Forwarded-Forで送信するため、ループバックアドレスからのヘッダを信頼する (TomcatのRemoteIpValve)
+            String[] defaults = { "--spring.datasource.url=" + database.getJdbcUrl(), "--server.port=0",
+                    "--app.ajp.port=0", "--server.forward-headers-strategy=native" };
+            String[] appArgs = Stream.concat(Stream.of(defaults),
+                    Stream.of(args).flatMap(arg -> Stream.of(arg.trim().split("\\s+"))).filter(arg -> !arg.isEmpty()))
+                    .toArray(String[]::new);
+
+            try (ConfigurableApplicationContext context = SpringApplication.run(DailyReportSystemApplication.class,
+                    appArgs)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                generateDataset(context);
+                List<String> codes = createEmployees(context, users);
+
+                EndpointStats stats = new EndpointStats();
+                List<VirtualUser> virtualUsers = new ArrayList<>();
+                LocalDate firstReportDate = LocalDate.now().minusYears(5);
+                for (int i = 0; i < codes.size(); i++) {
+                    // ベンチマーク用のアドレス (198.18.0.0/15)。プライベートアドレスはRemoteIpValveがプロキシとして読み飛ばすため使用しない
+                    String address = sharedAddress ? null
+                            : String.format("198.%d.%d.%d", 18 + (i >> 16 & 1), i >> 8 & 0xff, i & 0xff);
+                    virtualUsers.add(new VirtualUser(codes.get(i), firstReportDate, "http://localhost:" + port, address,
+                            stats));
+                }
+
+                for (VirtualUser user : virtualUsers) {
+                    scenario.prepare(user);
+                }
+
+                System.out.printf("Running %s with %d users%s (warmup %d s, duration %d s)%n", scenario, users,
+                        sharedAddress ? " from a shared address" : "", warmupSeconds, durationSeconds);
+                run(scenario, virtualUsers, stats, warmupSeconds, durationSeconds);
+                stats.report(scenario.name(), System.out, resultFile);
+
+                // ログイン試行回数の制限で拒否した件数 (エラーのうち制限によるものの確認)
+                LoginThrottle loginThrottle = context.getBean(LoginThrottle.class);
+                System.out.printf("login throttled: %d by code, %d by address%n",
+                        loginThrottle.getThrottledByCodeCount(), loginThrottle.getThrottledByAddressCount());
+            }
+        }
+    }
+
+    // 同じシードで生成したデータを事前に登録する (件数の指定がない場合は何もしない)
+    private static void generateDataset(ConfigurableApplicationContext context) {
+        int employees = Integer.getInteger("loadtest.dataset.employees", 0);
+        long reports = Long.getLong("loadtest.dataset.reports", 0L);
+        if (employees == 0) {
+            return;
+        }
+        context.getBean(DataGenerator.class).generate(new DataGenerator.Settings(employees, reports,
+                Long.getLong("loadtest.dataset.seed", 1L), LocalDate.of(2024, 12, 27), "D", VirtualUser.PASSWORD, 4));
+    }
+
+    // 負荷試験用の従業員 (一般権限) を登録する (ハッシュ化は1回のみ行い、全員同じパスワードとする)
+    private static List<String> createEmployees(ConfigurableApplicationContext context, int users) {
+        String password = context.getBean(PasswordEncoder.class).encode(VirtualUser.PASSWORD);
+
+        List<String> codes = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            String code = String.format("L%05d", i);
+            codes.add(code);
+            rows.add(new Object[] { code, "負荷試験　" + i, password });
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO employees(code,name,role,password,delete_flg,created_at,updated_at)"
+                        + " VALUES (?,?,'GENERAL',?,0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP)",
+                rows);
+
+        // DBに直接登録したため、従業員一覧を読み込み直す
+        context.getBean(EmployeeDirectory.class).reloadExternalChanges();
+        return codes;
+    }
+
+    private static void run(Scenario scenario, List<VirtualUser> virtualUsers, EndpointStats stats,
+            int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+        AtomicLong failures = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(virtualUsers.size());
+        for (VirtualUser user : virtualUsers) {
+            executor.execute(() -> {
+                for (int iteration = 0; System.nanoTime() < end; iteration++) {
+                    try {
+                        scenario.iterate(user, iteration);
+                    } catch (Exception e) {
+                        // 応答の記録はBrowserSessionで行っているため、シナリオを中断した件数のみ数える
+                        // ログイン画面へリダイレクトされた場合等に同じセッションで繰り返さないよう、次はログインし直す
+                        user.discardSession();
+                        if (failures.incrementAndGet() <= 5) {
+                            System.err.printf("%s: %s%n", user.code(), e);
+                        }
+                    }
+                }
+            });
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        stats.reset();
+
+        executor.shutdown();
+        executor.awaitTermination(durationSeconds + 120L, TimeUnit.SECONDS);
+        if (failures.get() > 0) {
+            System.err.printf("%d iterations aborted%n", failures.get());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.techacademy.loadtest;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 負荷試験のシナリオ
+enum Scenario {
+
+    // 9:00のログイン集中 (毎回新しいセッションでログインし、日報一覧を表示する)
+    LOGIN_STORM {
+        @Override
+        void iterate(VirtualUser user, int iteration) throws Exception {
+            BrowserSession session = user.newSession();
+            login(session, user);
+            session.get("list", "/reports");
+        }
+    },
+
+    // 17:30の日報提出集中 (ログイン済みの利用者が日報を登録し、一覧・詳細を表示して更新する)
+    SUBMISSION_PEAK {
+        // 開始前に全員ログインしておく (ログインの集中はLOGIN_STORMで計測する)
+        @Override
+        void prepare(VirtualUser user) throws Exception {
+            if (!login(user.newSession(), user)) {
+                throw new IllegalStateException("Login failed: " + user.code());
+            }
+        }
+
+        @Override
+        void iterate(VirtualUser user, int iteration) throws Exception {
+            BrowserSession session = user.session();
+            if (session == null) {
+                session = user.newSession();
+                if (!login(session, user)) {
+                    user.discardSession();
+                    return;
+                }
+            }
+
+            // 1日1件のため、繰り返しごとに日付をずらして登録する
+            LocalDate reportDate = user.firstReportDate().plusDays(iteration);
+            String form = session.get("new", "/reports/add");
+            session.post("submit", "/reports/add", BrowserSession.csrfToken(form),
+                    Map.of("reportDate", reportDate.toString(), "title", "負荷試験 " + reportDate, "content",
+                            "本日の作業内容\n".repeat(20)),
+                    "/reports");
+
+            String list = session.get("list", "/reports");
+            Matcher row = LIST_ROW.matcher(list);
+            if (!row.find()) {
+                return;
+            }
+            String date = row.group(1);
+            String id = row.group(2);
+
+            session.get("detail", "/reports/" + id + "/");
+
+            String updateForm = session.get("edit", "/reports/" + id + "/update");
+            session.post("update", "/reports/" + id + "/update", BrowserSession.csrfToken(updateForm),
+                    Map.of("reportDate", date, "title", "負荷試験 " + date + " (更新)", "content",
+                            "本日の作業内容 (更新)\n".repeat(20)),
+                    "/reports");
+        }
+    };
+
+    // 日報一覧の行 (日付と詳細画面へのリンク)
+    private static final Pattern LIST_ROW = Pattern
+            .compile("(\\d{4}-\\d{2}-\\d{2})</td>\\s*<td[^>]*>[^<]*</td>\\s*<td[^>]*><a href=\"/reports/(\\d+)/\"");
+
+    // 計測の開始前に1人ずつ実行する準備 (ウォームアップより前)
+    void prepare(VirtualUser user) throws Exception {
+    }
+
+    abstract void iterate(VirtualUser user, int iteration) throws Exception;
+
+    static Scenario of(String name) {
+        return valueOf(name.toUpperCase().replace('-', '_'));
+    }
+
+    private static boolean login(BrowserSession session, VirtualUser user) throws Exception {
+        String form = session.get("login-page", "/login");
+        return session.post("login", "/login", BrowserSession.csrfToken(form),
+                Map.of("username", user.code(), "password", VirtualUser.PASSWORD), "/");
+    }
+}
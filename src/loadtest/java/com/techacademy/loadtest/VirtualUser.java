@@ -0,0 +1,48 @@
+package com.techacademy.loadtest;
+
+import java.time.LocalDate;
+
+// 負荷試験の利用者 (従業員1人分)
+class VirtualUser {
+
+    // 負荷試験用の従業員のパスワード
+    static final String PASSWORD = "loadtest1";
+
+    private final String code;
+    private final LocalDate firstReportDate;
+    private final String baseUrl;
+    private final String address;
+    private final EndpointStats stats;
+    private BrowserSession session;
+
+    // address : 接続元アドレス (nullの場合は全利用者が負荷試験のプロセスのアドレスから接続する)
+    VirtualUser(String code, LocalDate firstReportDate, String baseUrl, String address, EndpointStats stats) {
+        this.code = code;
+        this.firstReportDate = firstReportDate;
+        this.baseUrl = baseUrl;
+        this.address = address;
+        this.stats = stats;
+    }
+
+    String code() {
+        return code;
+    }
+
+    LocalDate firstReportDate() {
+        return firstReportDate;
+    }
+
+    BrowserSession session() {
+        return session;
+    }
+
+    BrowserSession newSession() {
+        session = new BrowserSession(baseUrl, address, stats);
+        return session;
+    }
+
+    // ログインに失敗した (またはセッションが切れた) 場合に破棄し、次の繰り返しでログインし直す
+    void discardSession() {
+        session = null;
+    }
+}
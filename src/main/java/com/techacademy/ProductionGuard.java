@@ -0,0 +1,43 @@
+package com.techacademy;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// 本番環境 (prodプロファイル) の設定の確認
+/*    テンプレートのキャッシュが無効の場合、またはdevtoolsの再起動用のクラスローダで起動された場合は起動を中止する
+ *    (devtoolsはテンプレートのキャッシュを無効にし、クラスの変更を監視して再起動するため本番環境では使用しない)    */
+@Component
+@Profile("prod")
+public class ProductionGuard implements InitializingBean {
+
+    private static final String RESTART_CLASS_LOADER = "org.springframework.boot.devtools.restart.classloader.RestartClassLoader";
+
+    private final boolean templateCacheEnabled;
+
+    public ProductionGuard(@Value("${spring.thymeleaf.cache:true}") boolean templateCacheEnabled) {
+        this.templateCacheEnabled = templateCacheEnabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!templateCacheEnabled) {
+            throw new IllegalStateException("spring.thymeleaf.cache must be true in the prod profile");
+        }
+        if (isLoadedByRestartClassLoader()) {
+            throw new IllegalStateException("The devtools restart class loader must not be used in the prod profile;"
+                    + " run the packaged jar or set -Dspring.devtools.restart.enabled=false");
+        }
+    }
+
+    // アプリケーションのクラスがdevtoolsの再起動用のクラスローダで読み込まれているか
+    private boolean isLoadedByRestartClassLoader() {
+        for (ClassLoader loader = getClass().getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (RESTART_CLASS_LOADER.equals(loader.getClass().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
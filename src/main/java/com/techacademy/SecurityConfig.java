@@ -1,34 +1,107 @@
 package com.techacademy;
 
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import com.techacademy.security.BasicLoginThrottleFilter;
+import com.techacademy.security.BoundedPasswordEncoder;
+import com.techacademy.security.LoginThrottle;
+import com.techacademy.security.LoginThrottleFilter;
+import com.techacademy.security.PasswordHashingBusyException;
 
 @Configuration
 public class SecurityConfig {
+    /** メトリクス等の管理用エンドポイントの認証・認可設定 (ADMINのみ。収集ツールからはBasic認証で参照する) */
+    @Bean
+    @Order(1)
+    @ConditionalOnWebApplication
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http, LoginThrottle loginThrottle) throws Exception {
+        // Basic認証の試行回数の制限 (ログイン画面と同じ制限。パスワードの照合前に判定)
+        http.addFilterBefore(new BasicLoginThrottleFilter(loginThrottle), BasicAuthenticationFilter.class);
+
+        http.securityMatcher(EndpointRequest.toAnyEndpoint())
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasAnyAuthority("ADMIN"))
+                .httpBasic(Customizer.withDefaults())
+                .exceptionHandling(exception -> exception
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))); // 未認証の場合はログイン画面ではなく401を返す
+
+        return http.build();
+    }
+
     /** 認証・認可設定 */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(2)
+    @ConditionalOnWebApplication
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, LoginThrottle loginThrottle) throws Exception {
+        // ログイン試行回数の制限 (パスワードの照合前に判定)
+        http.addFilterBefore(new LoginThrottleFilter(loginThrottle), UsernamePasswordAuthenticationFilter.class);
+
         http.formLogin(login -> login.loginProcessingUrl("/login") // 従業員番号・パスワードの送信先
                 .loginPage("/login") // ログイン画面
-                .defaultSuccessUrl("/") // ログイン成功後のリダイレクト先
-                .failureUrl("/login?error") // ログイン失敗時のリダイレクト先
+                .successHandler(authenticationSuccessHandler(loginThrottle)) // ログイン成功後のリダイレクト先
+                .failureHandler(authenticationFailureHandler(loginThrottle)) // ログイン失敗時のリダイレクト先
                 .permitAll() // ログイン画面は未ログインでアクセス可
         ).logout(logout -> logout.logoutSuccessUrl("/login") // ログアウト後のリダイレクト先
         ).authorizeHttpRequests(
                 auth -> auth.requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll() // css等は未ログインでアクセス可
-                        .requestMatchers("/employees/**").hasAnyAuthority("ADMIN").anyRequest().authenticated()); // その他はログイン必要
+                        .requestMatchers("/employees/**").hasAnyAuthority("ADMIN")
+                        .requestMatchers("/reports/export").hasAnyAuthority("ADMIN") // 日報の出力は管理者のみ
+                        .requestMatchers("/reports/import").hasAnyAuthority("ADMIN") // 日報の一括登録は管理者のみ
+                        .anyRequest().authenticated()); // その他はログイン必要
 
         return http.build();
     }
 
-    /** ハッシュ化したパスワードの比較に使用する */
+    /** ログイン成功時のリダイレクト先 (試行回数の制限で消費したトークンを戻し、失敗した試行のみを制限の対象とする) */
+    private AuthenticationSuccessHandler authenticationSuccessHandler(LoginThrottle loginThrottle) {
+        SavedRequestAwareAuthenticationSuccessHandler handler = new SavedRequestAwareAuthenticationSuccessHandler();
+        handler.setDefaultTargetUrl("/");
+        return (request, response, authentication) -> {
+            loginThrottle.release(request.getParameter("username"), request.getRemoteAddr());
+            handler.onAuthenticationSuccess(request, response, authentication);
+        };
+    }
+
+    /** ログイン失敗時のリダイレクト先 (ハッシュ化処理の混雑時は専用のメッセージを表示) */
+    /*    混雑時はパスワードを照合していないため、試行回数の制限で消費したトークンを戻す
+     *    (戻さない場合、混雑が続くと正しいパスワードでの再試行も制限され、混雑が解消した後もログインできない)    */
+    private AuthenticationFailureHandler authenticationFailureHandler(LoginThrottle loginThrottle) {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error");
+        handler.setExceptionMappings(Map.of(PasswordHashingBusyException.class.getName(), "/login?busy"));
+        return (request, response, exception) -> {
+            if (exception instanceof PasswordHashingBusyException) {
+                loginThrottle.release(request.getParameter("username"), request.getRemoteAddr());
+            }
+            handler.onAuthenticationFailure(request, response, exception);
+        };
+    }
+
+    /** ハッシュ化したパスワードの比較に使用する (専用のスレッドプールで実行) */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.password.bcrypt-strength:10}") int strength,
+            @Value("${app.password.hashing.pool-size:2}") int poolSize,
+            @Value("${app.password.hashing.queue-capacity:50}") int queueCapacity,
+            @Value("${app.password.hashing.timeout-ms:5000}") long timeoutMillis) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeoutMillis);
     }
 }
\ No newline at end of file
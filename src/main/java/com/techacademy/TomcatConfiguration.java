@@ -1,16 +1,35 @@
 package com.techacademy; // ご自身の環境に合わせてください
 
 import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
 import org.apache.coyote.ajp.AjpNio2Protocol;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
 import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.techacademy.metrics.InstrumentedTomcatExecutor;
+import com.techacademy.metrics.TomcatConnectorMetrics;
 
 @Configuration
 public class TomcatConfiguration implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
 
+    private final Environment environment;
+    private final TomcatConnectorMetrics connectorMetrics;
+
+    public TomcatConfiguration(Environment environment, TomcatConnectorMetrics connectorMetrics) {
+        this.environment = environment;
+        this.connectorMetrics = connectorMetrics;
+    }
+
     @Override
     public void customize(TomcatServletWebServerFactory factory) {
+        // HTTPのコネクタ (スレッド数等は server.tomcat.* で設定)
+        factory.addConnectorCustomizers(connector -> instrument("http", connector,
+                environment.getProperty("app.http.max-queue-size", Integer.class, Integer.MAX_VALUE)));
+
         // Tomcatとの通信手段にAJPを追加
         factory.addAdditionalTomcatConnectors(ajpConnector());
     }
@@ -20,13 +39,50 @@ public class TomcatConfiguration implements WebServerFactoryCustomizer<TomcatSer
         Connector connector = new Connector("org.apache.coyote.ajp.AjpNio2Protocol");
 
         // AJPの通信で8009番ポートを使うための指定
-        connector.setPort(8009);
+        connector.setPort(environment.getProperty("app.ajp.port", Integer.class, 8009));
 
         // secretという保護機能を利用しないようにする設定
         AjpNio2Protocol protocol = (AjpNio2Protocol) connector.getProtocolHandler();
         protocol.setSecretRequired(false);
 
+        // スレッド数・接続数・タイムアウトの設定 (リバースプロキシ側のworker数に合わせて調整する)
+        protocol.setMaxThreads(environment.getProperty("app.ajp.max-threads", Integer.class, 200));
+        protocol.setMinSpareThreads(environment.getProperty("app.ajp.min-spare-threads", Integer.class, 10));
+        protocol.setMaxConnections(environment.getProperty("app.ajp.max-connections", Integer.class, 8192));
+        protocol.setAcceptCount(environment.getProperty("app.ajp.accept-count", Integer.class, 100));
+        protocol.setConnectionTimeout(environment.getProperty("app.ajp.connection-timeout", Integer.class, 60000));
+        protocol.setKeepAliveTimeout(environment.getProperty("app.ajp.keep-alive-timeout", Integer.class, 60000));
+
+        // 仮想スレッドの利用が有効な場合 (spring.threads.virtual.enabled=true かつ Java 21以上)
+        // HTTPのコネクタはSpring Bootが設定するため、AJPのコネクタにも同じ設定を行う
+        if (Threading.VIRTUAL.isActive(environment)) {
+            protocol.setExecutor(new VirtualThreadExecutor("tomcat-ajp-handler-"));
+        }
+
+        instrument("ajp", connector,
+                environment.getProperty("app.ajp.max-queue-size", Integer.class, Integer.MAX_VALUE));
+
         return connector;
     }
 
-}
\ No newline at end of file
+    // コネクタのスレッドプールをメトリクス取得可能なものに置き換えて登録
+    // (待ち行列の上限はTomcat側に設定項目がないため、スレッドプールに直接指定する)
+    private void instrument(String name, Connector connector, int maxQueueSize) {
+
+        if (!(connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol)) {
+            return;
+        }
+
+        // 仮想スレッドで処理する場合はスレッドプールを置き換えない
+        if (Threading.VIRTUAL.isActive(environment)) {
+            connectorMetrics.register(name, connector, null);
+            return;
+        }
+
+        InstrumentedTomcatExecutor executor = new InstrumentedTomcatExecutor("tomcat-" + name + "-exec-",
+                protocol.getMinSpareThreads(), protocol.getMaxThreads(), maxQueueSize);
+        protocol.setExecutor(executor);
+        connectorMetrics.register(name, connector, executor);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.techacademy;
+
+import java.time.Duration;
+
+import jakarta.servlet.DispatcherType;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    // 静的ファイル (css/js) のディレクトリ (src/main/resources/static配下)
+    private static final String[] ASSET_DIRECTORIES = { "css", "js" };
+
+    // 静的ファイルのキャッシュ期間 (ハッシュ付きのURLのみ)
+    private static final Duration ASSET_MAX_AGE = Duration.ofDays(365);
+
+    // ハッシュ付きのファイル名 (例: bootstrap.min-<hash>.css。ハッシュは内容のMD5 (16進数32桁))
+    /*    URLのパターンの正規表現には{}と/を使用できないため、桁数分を繰り返して指定する (1つのディレクトリ内のみ一致する)    */
+    private static final String VERSIONED_FILE = "{file:.+-" + "[0-9a-f]".repeat(32) + "\\..+}";
+
+    /** 静的ファイルの配信設定 */
+    /*    URLに内容のハッシュを付けて返却する (例: /css/bootstrap.min-<hash>.css)。内容が変わるとURLも変わるため、
+     *    ブラウザ・プロキシには1年間再検証せずに使わせる (immutable)。テンプレートでは必ず@{}で参照すること
+     *    ハッシュなしのURL (/css/bootstrap.min.css) は内容が変わっても同じURLのため、毎回再検証させる (no-cache)
+     *    より限定的なパターン (ハッシュ付き) のハンドラが優先される。サブディレクトリのファイルは常にno-cacheとなる
+     *    ビルド時に作成した圧縮版 (.br/.gz) があればAccept-Encodingに応じてそのまま返却する (pom.xml)    */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : ASSET_DIRECTORIES) {
+            addAssetHandler(registry, directory, "/" + directory + "/" + VERSIONED_FILE,
+                    CacheControl.maxAge(ASSET_MAX_AGE).cachePublic().immutable());
+            addAssetHandler(registry, directory, "/" + directory + "/**", CacheControl.noCache().cachePublic());
+        }
+    }
+
+    private static void addAssetHandler(ResourceHandlerRegistry registry, String directory, String pattern,
+            CacheControl cacheControl) {
+        registry.addResourceHandler(pattern)
+                .addResourceLocations("classpath:/static/" + directory + "/")
+                .setCacheControl(cacheControl)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    /** テンプレートの@{}で出力するURLをハッシュ付きのURLに変換する */
+    /*    エラー画面でもヘッダの断片を描画するため、ERRORのディスパッチにも適用する (FragmentCacheにハッシュなしのURLを残さない)    */
+    @Bean
+    public FilterRegistrationBean<ResourceUrlEncodingFilter> resourceUrlEncodingFilter() {
+        FilterRegistrationBean<ResourceUrlEncodingFilter> registration = new FilterRegistrationBean<>(new ResourceUrlEncodingFilter());
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ERROR);
+        return registration;
+    }
+}
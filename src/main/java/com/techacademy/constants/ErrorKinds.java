@@ -37,6 +37,18 @@ public enum ErrorKinds {
     // [日報] タイトル文字数エラー 
     TITLE_LENGTH_ERROR,
     // [日報] 内容文字数エラー
-    CONTENT_LENGTH_ERROR
+    CONTENT_LENGTH_ERROR,
+    // パスワードのハッシュ化処理の混雑エラー
+    PASSWORD_BUSY_ERROR,
+    // [日報] 登録処理の混雑エラー
+    REPORT_SUBMIT_BUSY_ERROR,
+    // [一括登録] CSVの形式エラー
+    IMPORT_FORMAT_ERROR,
+    // [一括登録] 値の形式エラー
+    IMPORT_VALUE_ERROR,
+    // [一括登録] 存在しない社員番号エラー
+    IMPORT_EMPLOYEE_ERROR,
+    // [一括登録] 値の文字数超過エラー (以降の行は読み込まない)
+    IMPORT_FIELD_LENGTH_ERROR
     
 }
@@ -40,6 +40,22 @@ public class ErrorMessage {
             // [日報] タイトルの文字数制限のエラーメッセージ
             put(ErrorKinds.CONTENT_LENGTH_ERROR,
                     new ArrayList<String>(Arrays.asList("contentLengthError", "600文字以下で入力してください")));
+            // パスワードのハッシュ化処理の混雑エラーメッセージ
+            put(ErrorKinds.PASSWORD_BUSY_ERROR,
+                    new ArrayList<String>(Arrays.asList("passwordError", "只今混み合っています。しばらくしてから再度お試しください")));
+            // [日報] 登録処理の混雑エラーメッセージ
+            put(ErrorKinds.REPORT_SUBMIT_BUSY_ERROR, new ArrayList<String>(
+                    Arrays.asList("submitError", "只今混み合っています。日報一覧で登録されたかを確認してから再度お試しください")));
+            // [一括登録] CSVの形式エラーメッセージ
+            put(ErrorKinds.IMPORT_FORMAT_ERROR,
+                    new ArrayList<String>(Arrays.asList("importError", "CSVの形式が正しくありません (見出し行と列の数を確認してください)")));
+            // [一括登録] 値の形式エラーメッセージ
+            put(ErrorKinds.IMPORT_VALUE_ERROR, new ArrayList<String>(Arrays.asList("importError", "値の形式が正しくありません")));
+            // [一括登録] 存在しない社員番号のエラーメッセージ
+            put(ErrorKinds.IMPORT_EMPLOYEE_ERROR, new ArrayList<String>(Arrays.asList("importError", "存在しない社員番号です")));
+            // [一括登録] 値の文字数超過のエラーメッセージ
+            put(ErrorKinds.IMPORT_FIELD_LENGTH_ERROR, new ArrayList<String>(Arrays.asList("importError",
+                    "値が長すぎます (ダブルクォートの閉じ忘れを確認してください。この行以降は読み込んでいません)")));
         }
     };
 
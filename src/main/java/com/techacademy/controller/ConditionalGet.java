@@ -0,0 +1,40 @@
+package com.techacademy.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// 条件付きGET (ETag / Last-Modified)
+/*    画面にはセッションごとのCSRFトークンと権限に応じたメニューが含まれるため、ETagにはセッションIDを含める
+ *    (セッションIDがヘッダに出ないようハッシュ化する)。ブラウザ・プロキシは保存してよいが、毎回再検証させる    */
+final class ConditionalGet {
+
+    static final String CACHE_CONTROL = "private, no-cache";
+
+    private ConditionalGet() {
+    }
+
+    // 画面の内容を決める値からETagを作成し、リクエストのETag (Last-Modified) と一致する場合は304を設定してtrueを返す
+    /*    trueの場合、呼び出し側は画面を描画せずにnullを返すこと。lastModifiedがnullの場合はETagのみで判定する    */
+    static boolean checkNotModified(ServletWebRequest webRequest, LocalDateTime lastModified, Object... versions) {
+
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+
+        StringBuilder key = new StringBuilder(webRequest.getSessionId());
+        for (Object version : versions) {
+            key.append('|').append(version);
+        }
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        if (lastModified == null) {
+            return webRequest.checkNotModified(etag);
+        }
+        return webRequest.checkNotModified(etag, lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+}
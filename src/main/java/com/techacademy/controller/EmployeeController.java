@@ -1,5 +1,7 @@
 package com.techacademy.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -13,11 +15,15 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.constants.ErrorMessage;
 
 import com.techacademy.entity.Employee;
+import com.techacademy.service.BulkImportService;
 import com.techacademy.service.EmployeeService;
 import com.techacademy.service.UserDetail;
 
@@ -26,10 +32,12 @@ import com.techacademy.service.UserDetail;
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final BulkImportService bulkImportService;
 
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, BulkImportService bulkImportService) {
         this.employeeService = employeeService;
+        this.bulkImportService = bulkImportService;
     }
 
     // 従業員一覧画面
@@ -44,7 +52,19 @@ public class EmployeeController {
 
     // 従業員詳細画面
     @GetMapping(value = "/{code}/")
-    public String detail(@PathVariable String code, Model model) {
+    public String detail(@PathVariable String code, Model model, ServletWebRequest webRequest) {
+
+        // 従業員情報が変更されていない場合は304を返す
+        Employee employee = employeeService.findByCode(code);
+        if (employee != null && ConditionalGet.checkNotModified(webRequest, employee.getUpdatedAt(), "employee", code,
+                employee.getUpdatedAt())) {
+            return null;
+        }
+
+        return renderDetail(code, model);
+    }
+
+    private String renderDetail(String code, Model model) {
 
         model.addAttribute("employee", employeeService.findByCode(code));
         return "employees/detail";
@@ -100,6 +120,31 @@ public class EmployeeController {
         return "redirect:/employees";
     }
 
+    // 従業員一括登録画面
+    @GetMapping(value = "/import")
+    public String importForm(Model model) {
+
+        model.addAttribute("header", String.join(",", BulkImportService.EMPLOYEE_HEADER));
+        return "employees/import";
+    }
+
+    // 従業員一括登録処理 (CSV。誤りのある行は登録せずに結果画面へ表示)
+    @PostMapping(value = "/import")
+    public String importEmployees(@RequestParam MultipartFile file, Model model) throws IOException {
+
+        if (file.isEmpty()) {
+            model.addAttribute(ErrorMessage.getErrorName(ErrorKinds.IMPORT_FORMAT_ERROR),
+                    ErrorMessage.getErrorValue(ErrorKinds.IMPORT_FORMAT_ERROR));
+            return importForm(model);
+        }
+
+        try (InputStream inputStream = file.getInputStream()) {
+            model.addAttribute("importResult", bulkImportService.importEmployees(inputStream));
+        }
+
+        return importForm(model);
+    }
+
     // 従業員削除処理
     @PostMapping(value = "/{code}/delete")
     public String delete(@PathVariable String code, @AuthenticationPrincipal UserDetail userDetail, Model model) {
@@ -109,7 +154,7 @@ public class EmployeeController {
         if (ErrorMessage.contains(result)) {
             model.addAttribute(ErrorMessage.getErrorName(result), ErrorMessage.getErrorValue(result));
             model.addAttribute("employee", employeeService.findByCode(code));
-            return detail(code, model);
+            return renderDetail(code, model);
         }
 
         return "redirect:/employees";
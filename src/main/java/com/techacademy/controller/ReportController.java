@@ -1,13 +1,26 @@
 package com.techacademy.controller;
 
-import java.security.Principal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,14 +28,31 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.constants.ErrorMessage;
 
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
+import com.techacademy.metrics.SqlStatementBudgetFilter;
+import com.techacademy.repository.ReportVersionKey;
+import com.techacademy.security.ReportAuthorization;
+import com.techacademy.service.BulkImportService;
+import com.techacademy.service.EmployeeDirectory;
 import com.techacademy.service.EmployeeService;
+import com.techacademy.service.ReportChunks;
+import com.techacademy.service.ReportCursor;
+import com.techacademy.service.ReportExportService;
+import com.techacademy.service.ReportExportService.Format;
+import com.techacademy.service.ReportListVersion;
+import com.techacademy.service.ReportPage;
 import com.techacademy.service.ReportService;
+import com.techacademy.service.ReportSubmissionBatcher;
 import com.techacademy.service.UserDetail;
 
 @Controller
@@ -31,42 +61,171 @@ public class ReportController {
     
     private final EmployeeService employeeService;
     private final ReportService reportService;
+    private final ReportAuthorization reportAuthorization;
+    private final ReportExportService reportExportService;
+    private final BulkImportService bulkImportService;
+    private final ReportSubmissionBatcher reportSubmissionBatcher;
+    private final ReportListVersion reportListVersion;
+    private final EmployeeDirectory employeeDirectory;
+    private final long exportTimeoutMillis;
     
     @Autowired
-    public ReportController(EmployeeService employeeService, ReportService reportService) {
+    public ReportController(EmployeeService employeeService, ReportService reportService, ReportAuthorization reportAuthorization,
+            ReportExportService reportExportService, BulkImportService bulkImportService,
+            ReportSubmissionBatcher reportSubmissionBatcher, ReportListVersion reportListVersion,
+            EmployeeDirectory employeeDirectory, @Value("${app.report.export.timeout-ms:3600000}") long exportTimeoutMillis) {
         this.employeeService = employeeService;
         this.reportService = reportService;
+        this.reportAuthorization = reportAuthorization;
+        this.reportExportService = reportExportService;
+        this.bulkImportService = bulkImportService;
+        this.reportSubmissionBatcher = reportSubmissionBatcher;
+        this.reportListVersion = reportListVersion;
+        this.employeeDirectory = employeeDirectory;
+        this.exportTimeoutMillis = exportTimeoutMillis;
     }
     
     // [日報] 一覧画面
     @GetMapping
-    public String list(Model model) {
+    public String list(@RequestParam(required = false) String after, @RequestParam(required = false) String before, Model model,
+            ServletWebRequest webRequest) {
+        
+        // 日報・従業員 (名前・権限) のいずれも変更されていない場合は一覧を取得せずに304を返す
+        /*    従業員の削除による日報の一括論理削除は従業員名簿のバージョンで検知する    */
+        if (ConditionalGet.checkNotModified(webRequest, null, "reports", reportListVersion.getVersion(),
+                employeeDirectory.getVersion(), after, before)) {
+            return null;
+        }
         
         // ログイン中の従業員情報を取得してモデルに追加
         Employee loggedInEmployeeInfo = employeeService.getLoggedInEmployeeInfo();
         
-        model.addAttribute("listSize", reportService.findReportsByCurrentUser(loggedInEmployeeInfo).size());
-        model.addAttribute("reportList", reportService.findReportsByCurrentUser(loggedInEmployeeInfo));
+        // 表示するページ (before指定時は前のページ、それ以外は次のページ)
+        ReportCursor cursor = before != null ? ReportCursor.parse(before) : ReportCursor.parse(after);
+        ReportPage reportPage = reportService.findReportPageByCurrentUser(loggedInEmployeeInfo, cursor, before != null);
+        
+        model.addAttribute("listSize", reportService.countReportsByCurrentUser(loggedInEmployeeInfo));
+        model.addAttribute("reportPage", reportPage);
+        model.addAttribute("reportList", reportPage.getReportList());
         model.addAttribute("employeeList", employeeService.findAll());
         
         return "reports/list";
     }
+
+    // [日報] 一覧画面 (1か月分を全件表示)
+    /*    日報は描画しながらチャンク単位で読み込み、チャンクごとに応答をflushする。件数によらず最初の行はすぐに返却され、
+     *    メモリに保持するのは1チャンク分のみ (spring.thymeleaf.servlet.produce-partial-output-while-processing)
+     *    応答の送信を始めた後にエラーとなった場合はステータスを変更できないため、一覧は途中までとなる    */
+    @GetMapping(params = "month")
+    public String listMonth(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month, Model model,
+            ServletWebRequest webRequest) {
+
+        if (ConditionalGet.checkNotModified(webRequest, null, "reports", reportListVersion.getVersion(),
+                employeeDirectory.getVersion(), month)) {
+            return null;
+        }
+
+        Employee loggedInEmployeeInfo = employeeService.getLoggedInEmployeeInfo();
+
+        // 読み込むチャンクの数は件数に比例するため、SQLの件数の上限は確認しない
+        webRequest.getRequest().setAttribute(SqlStatementBudgetFilter.BUDGET_EXEMPT_ATTRIBUTE, Boolean.TRUE);
+        HttpServletResponse response = webRequest.getResponse();
+        ReportChunks reportList = reportService.findMonthlyReportsByCurrentUser(loggedInEmployeeInfo, month, () -> {
+            try {
+                response.flushBuffer();
+            } catch (IOException e) {
+                // クライアントが切断した場合は以降のチャンクを読み込まずに描画を中止する
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        model.addAttribute("month", month);
+        model.addAttribute("reportList", reportList);
+
+        return "reports/list";
+    }
+
+    // [日報] 出力 (管理者のみ。期間・従業員で絞り込み、CSVまたはNDJSONで1件ずつ書き出す)
+    /*    書き出しはリクエストのスレッドとは別のスレッドで行われる
+     *    件数が多い場合に時間がかかるため、この出力のみ非同期処理のタイムアウトを長くする (app.report.export.timeout-ms)    */
+    @GetMapping(value = "/export")
+    @ResponseBody
+    public WebAsyncTask<Void> export(@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String employeeCode, @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        
+        Format exportFormat = "ndjson".equalsIgnoreCase(format) ? Format.NDJSON : Format.CSV;
+        String code = StringUtils.hasText(employeeCode) ? employeeCode : null;
+        
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("reports." + exportFormat.getExtension()).build().toString());
+        
+        // レスポンスに直接書き出す (@ResponseBodyのため、完了後に画面は描画しない)
+        return new WebAsyncTask<>(exportTimeoutMillis, () -> {
+            reportExportService.export(from, to, code, exportFormat, response.getOutputStream());
+            return null;
+        });
+    }
+    
+    // [日報] 一括登録画面 (管理者のみ)
+    @GetMapping(value = "/import")
+    public String importForm(Model model) {
+        
+        model.addAttribute("header", String.join(",", BulkImportService.REPORT_HEADER));
+        return "reports/import";
+    }
+    
+    // [日報] 一括登録処理 (管理者のみ。CSV。誤りのある行は登録せずに結果画面へ表示)
+    @PostMapping(value = "/import")
+    public String importReports(@RequestParam MultipartFile file, Model model) throws IOException {
+        
+        if (file.isEmpty()) {
+            model.addAttribute(ErrorMessage.getErrorName(ErrorKinds.IMPORT_FORMAT_ERROR),
+                    ErrorMessage.getErrorValue(ErrorKinds.IMPORT_FORMAT_ERROR));
+            return importForm(model);
+        }
+        
+        try (InputStream inputStream = file.getInputStream()) {
+            model.addAttribute("importResult", bulkImportService.importReports(inputStream));
+        }
+        
+        return importForm(model);
+    }
     
     // [日報] 詳細画面
     @GetMapping(value = "/{id}/")
-    public String detail(@PathVariable Long id, Model model, Principal principal) {
+    public String detail(@PathVariable Long id, Model model, Authentication authentication, ServletWebRequest webRequest) {
+        
+        // 本文を読み込む前に更新日時のみを取得し、日報・所有者の従業員情報ともに変更されていない場合は304を返す
+        ReportVersionKey versionKey = reportService.findReportVersionKey(id);
+        if (versionKey != null && reportAuthorization.isOwnerOrAdmin(authentication, versionKey.employeeCode())) {
+            Employee owner = employeeService.findByCode(versionKey.employeeCode());
+            LocalDateTime lastModified = owner == null || owner.getUpdatedAt().isBefore(versionKey.updatedAt())
+                    ? versionKey.updatedAt() : owner.getUpdatedAt();
+            if (ConditionalGet.checkNotModified(webRequest, lastModified, "report", id, versionKey.updatedAt(),
+                    owner == null ? null : owner.getUpdatedAt())) {
+                return null;
+            }
+        }
         
-        Report report = reportService.findByReportId(id);
-        String currentUsername = principal.getName(); 
+        return renderDetail(id, model, authentication);
+    }
+    
+    private String renderDetail(Long id, Model model, Authentication authentication) {
+        
+        // 日報と所有者の従業員情報を1回で取得
+        Report report = reportService.findReportWithEmployee(id);
         
         // レポートの所有者と現在のユーザーが異なる場合のチェック
-        if (!report.getEmployee().getCode().equals(currentUsername) && !employeeService.findByCode(currentUsername).getRole().equals(Employee.Role.ADMIN)) {
+        if (report == null || !reportAuthorization.isOwnerOrAdmin(authentication, report.getEmployeeCode())) {
             model.addAttribute("error", "アクセス権限がありません");
             return "error";
         }
         
-        model.addAttribute("report", reportService.findByReportId(id));
-        model.addAttribute("employee", employeeService.findByCode(reportService.getEmployeeCode(id)));
+        model.addAttribute("report", report);
+        model.addAttribute("employee", report.getEmployee());
         
         return "reports/detail";
     }
@@ -127,22 +286,27 @@ public class ReportController {
             return create(report, model);
         }
         
-        // 新規日報の保存処理
-        reportService.save(report);
+        // 新規日報の保存処理 (グループコミットが有効な場合は同時に提出された日報とまとめて登録)
+        // 同時登録で同日の日報が先に登録された場合はDATECHECK_ERRORとなる
+        ErrorKinds result = reportSubmissionBatcher.submit(report);
+        if (ErrorMessage.contains(result)) {
+            model.addAttribute(ErrorMessage.getErrorName(result), ErrorMessage.getErrorValue(result));
+            return create(report, model);
+        }
         
         return "redirect:/reports";
     }
     
     // [日報] 削除処理
     @PostMapping(value = "/{id}/delete")
-    public String delete(@PathVariable Long id, @AuthenticationPrincipal UserDetail userDetail, Model model, Principal principal) {
+    public String delete(@PathVariable Long id, @AuthenticationPrincipal UserDetail userDetail, Model model, Authentication authentication) {
         
         ErrorKinds result = reportService.delete(id, userDetail);
         
         if (ErrorMessage.contains(result)) {
             model.addAttribute(ErrorMessage.getErrorName(result), ErrorMessage.getErrorValue(result));
             model.addAttribute("report", reportService.findByReportId(id));
-            return detail(id, model, principal);
+            return renderDetail(id, model, authentication);
         }
         
         return "redirect:/reports";
@@ -150,29 +314,30 @@ public class ReportController {
     
     // [日報] 更新画面
     @GetMapping(value = "/{id}/update")
-    public String update(@PathVariable Long id, Model model, Principal principal) {
+    public String update(@PathVariable Long id, Model model, Authentication authentication) {
         
-        Report report = reportService.findByReportId(id);
-        String currentUsername = principal.getName(); 
+        // 日報と所有者の従業員情報を1回で取得
+        Report report = reportService.findReportWithEmployee(id);
         
         // レポートの所有者と現在のユーザーが異なる場合のチェック
-        if (!report.getEmployee().getCode().equals(currentUsername) && !employeeService.findByCode(currentUsername).getRole().equals(Employee.Role.ADMIN)) {
+        if (report == null || !reportAuthorization.isOwnerOrAdmin(authentication, report.getEmployeeCode())) {
             model.addAttribute("error", "アクセス権限がありません");
             return "error";
         }
         
-        model.addAttribute("report", reportService.findByReportId(id));
-        model.addAttribute("employee", employeeService.findByCode(reportService.getEmployeeCode(id)));
+        model.addAttribute("report", report);
+        model.addAttribute("employee", report.getEmployee());
         
         return "reports/update";
     }
     
     // [日報] 更新処理
     @PostMapping(value = "/{id}/update")
-    public String updateReport(@PathVariable Long id, @Validated Report report, BindingResult result, @AuthenticationPrincipal UserDetail userDetail, Model model) {
+    public String updateReport(@PathVariable Long id, @Validated Report report, BindingResult result, Authentication authentication, Model model) {
         
         // 権限チェック
-        if (!canUpdateReport(id, userDetail.getUsername())) {
+        String reportEmployeeCode = reportService.getEmployeeCode(id);
+        if (!reportAuthorization.isOwnerOrAdmin(authentication, reportEmployeeCode)) {
             model.addAttribute("error", "この操作には権限がありません。");
             return "error";
         }
@@ -221,8 +386,9 @@ public class ReportController {
         
         // Employee情報付与
         /*   ログインしているユーザーではなく、日報のユーザーであること    */
-        model.addAttribute("employee", employeeService.findByCode(reportService.getEmployeeCode(id)));
-        report.setEmployee(employeeService.findByCode(reportService.getEmployeeCode(id)));
+        Employee reportEmployee = employeeService.findByCode(reportEmployeeCode);
+        model.addAttribute("employee", reportEmployee);
+        report.setEmployee(reportEmployee);
         
         // 入力チェック
         if (result.hasErrors()) {
@@ -238,25 +404,13 @@ public class ReportController {
             reportService.update(report);
             
         } catch (DataIntegrityViolationException e) {
-            model.addAttribute(ErrorMessage.getErrorName(ErrorKinds.DUPLICATE_EXCEPTION_ERROR),
-                ErrorMessage.getErrorValue(ErrorKinds.DUPLICATE_EXCEPTION_ERROR));
+            // 同時更新で同日の日報が先に登録された場合 (一意制約違反)
+            model.addAttribute(ErrorMessage.getErrorName(ErrorKinds.DATECHECK_ERROR),
+                ErrorMessage.getErrorValue(ErrorKinds.DATECHECK_ERROR));
             return "reports/update";
         }
 
         return "redirect:/reports";
     }
-    
-    public boolean canUpdateReport(@PathVariable Long id, @PathVariable String code) {
-        
-        Report report = reportService.findByReportId(id);
-        
-        if (report == null) {
-            return false;
-        }
-        
-        Employee loggedInEmployeeInfo = employeeService.getLoggedInEmployeeInfo();
-        
-        return loggedInEmployeeInfo.getCode().equals(code) || loggedInEmployeeInfo.getRole() == Employee.Role.ADMIN;
-    }
 
 }
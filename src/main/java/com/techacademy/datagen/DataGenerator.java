@@ -0,0 +1,263 @@
+package com.techacademy.datagen;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techacademy.service.EmployeeDirectory;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 性能試験用のデータ生成 (従業員・日報をJDBCのバッチでまとめて登録する)
+/*    同じシード・件数・最終日であれば同じデータを生成する (パスワードのハッシュ値のみソルトにより異なる)    */
+@Slf4j
+@Component
+public class DataGenerator {
+
+    // 1回のバッチで登録する件数
+    private static final int BATCH_SIZE = 5000;
+
+    // 日報を並列に登録する際の1タスクあたりの従業員数
+    private static final int EMPLOYEES_PER_TASK = 20;
+
+    // 進捗を出力する間隔 (件数)
+    private static final long PROGRESS_INTERVAL = 100_000;
+
+    private static final String[] SURNAMES = { "佐藤", "鈴木", "高橋", "田中", "伊藤", "渡辺", "山本", "中村", "小林", "加藤", "吉田",
+            "山田", "佐々木", "山口", "松本", "井上", "木村", "林", "斎藤", "清水" };
+    private static final String[] GIVEN_NAMES = { "太郎", "花子", "健一", "美咲", "翔太", "陽菜", "大輔", "由美", "拓也", "彩",
+            "直樹", "愛", "誠", "恵", "亮", "真由美", "和也", "舞", "隆", "優子" };
+    private static final String[] PROJECTS = { "販売管理システム", "在庫管理システム", "社内ポータル", "会計システム", "人事給与システム",
+            "顧客管理システム", "ECサイト", "スマホアプリ", "データ分析基盤", "勤怠管理システム" };
+    private static final String[] TASKS = { "要件定義", "基本設計", "詳細設計", "実装", "単体テスト", "結合テスト", "レビュー対応", "顧客打合せ",
+            "障害対応", "リリース作業", "性能改善", "資料作成" };
+    private static final String[] NOTES = { "予定通り進捗しています。", "一部の仕様について確認が必要です。", "想定より時間がかかったため、明日も継続します。",
+            "チーム内で認識合わせを行いました。", "課題を一覧に整理しました。", "特に問題はありません。", "顧客からの質問に回答しました。",
+            "テストで不具合が見つかったため、原因を調査中です。" };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final EmployeeDirectory employeeDirectory;
+    private final TransactionTemplate transactionTemplate;
+
+    public DataGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+            EmployeeDirectory employeeDirectory, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.employeeDirectory = employeeDirectory;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // 生成条件
+    public record Settings(int employees, long reports, long seed, LocalDate endDate, String codePrefix,
+            String password, int threads) {
+    }
+
+    // 従業員・日報の生成
+    public void generate(Settings settings) {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+
+        long started = System.nanoTime();
+        List<String> codes = insertEmployees(settings, random);
+        long reports = insertReports(settings, codes, random);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        log.info("Generated {} employees and {} reports in {} s ({} rows/s)", codes.size(), reports,
+                String.format("%.1f", seconds), Math.round((codes.size() + reports) / seconds));
+
+        // DBに直接登録したため、従業員一覧を読み込み直す
+        employeeDirectory.reloadExternalChanges();
+    }
+
+    private List<String> insertEmployees(Settings settings, SplittableRandom random) {
+        // ハッシュ化は時間がかかるため1回のみ行い、全員同じパスワードとする
+        String password = passwordEncoder.encode(settings.password());
+        LocalDateTime createdAt = settings.endDate().minusYears(5).atTime(9, 0);
+
+        List<String> codes = new ArrayList<>(settings.employees());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= settings.employees(); i++) {
+            String code = settings.codePrefix() + String.format("%06d", i);
+            codes.add(code);
+
+            String name = SURNAMES[random.nextInt(SURNAMES.length)] + "　" + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+            // 20人に1人程度を管理者とする
+            String role = random.nextInt(20) == 0 ? "ADMIN" : "GENERAL";
+            Timestamp timestamp = Timestamp.valueOf(createdAt);
+            batch.add(new Object[] { code, name, role, password, timestamp, timestamp });
+
+            if (batch.size() == BATCH_SIZE) {
+                flushEmployees(batch);
+            }
+        }
+        flushEmployees(batch);
+        return codes;
+    }
+
+    private void flushEmployees(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees(code,name,role,password,delete_flg,created_at,updated_at)"
+                + " VALUES (?,?,?,?,0,?,?)", batch);
+        batch.clear();
+    }
+
+    private long insertReports(Settings settings, List<String> codes, SplittableRandom random) {
+        if (codes.isEmpty()) {
+            return 0;
+        }
+
+        // 従業員ごとの件数・乱数・IDの開始値を先に決めておき、並列に登録しても同じデータとなるようにする
+        long[] counts = reportCounts(settings.reports(), codes.size(), random);
+        SplittableRandom[] randoms = new SplittableRandom[codes.size()];
+        long[] firstIds = new long[codes.size()];
+        long nextId = reserveReportIds(settings.reports());
+        for (int i = 0; i < codes.size(); i++) {
+            randoms[i] = random.split();
+            firstIds[i] = nextId;
+            nextId += counts[i];
+        }
+
+        AtomicLong inserted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < codes.size(); from += EMPLOYEES_PER_TASK) {
+                int to = Math.min(from + EMPLOYEES_PER_TASK, codes.size());
+                int first = from;
+                futures.add(executor.submit(() -> {
+                    List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                    for (int i = first; i < to; i++) {
+                        addReports(batch, codes.get(i), firstIds[i], counts[i], settings.endDate(), randoms[i]);
+                        if (batch.size() >= BATCH_SIZE) {
+                            progress(inserted.addAndGet(flushReports(batch)), settings.reports());
+                        }
+                    }
+                    progress(inserted.addAndGet(flushReports(batch)), settings.reports());
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Report generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Report generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return inserted.get();
+    }
+
+    // 日報IDの採番テーブルから件数分のIDを予約し、先頭のIDを返す
+    /*    採番テーブルの値は払い出し済みの最後のID (Report.idの@TableGeneratorと同じ規則)    */
+    private long reserveReportIds(long count) {
+        return transactionTemplate.execute(status -> {
+            Long last = jdbcTemplate.queryForObject("SELECT next_val FROM id_generators WHERE name = 'reports' FOR UPDATE",
+                    Long.class);
+            jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE name = 'reports'", last + count);
+            return last + 1;
+        });
+    }
+
+    // 1人分の日報 (最終日から遡って平日のみ登録する。1割程度は休暇等で登録しない)
+    private static void addReports(List<Object[]> batch, String code, long firstId, long count, LocalDate endDate,
+            SplittableRandom random) {
+        LocalDate reportDate = previousWorkday(endDate, true);
+        for (long n = 0; n < count; n++) {
+            while (random.nextInt(10) == 0) {
+                reportDate = previousWorkday(reportDate, false);
+            }
+            batch.add(report(firstId + n, code, reportDate, random));
+            reportDate = previousWorkday(reportDate, false);
+        }
+    }
+
+    private static void progress(long inserted, long total) {
+        if (inserted / PROGRESS_INTERVAL != (inserted - BATCH_SIZE) / PROGRESS_INTERVAL) {
+            log.info("{} / {} reports", inserted, total);
+        }
+    }
+
+    // 従業員ごとの日報の件数 (在籍期間の違いを表すため、件数にばらつきを持たせる)
+    private static long[] reportCounts(long reports, int employees, SplittableRandom random) {
+        double[] weights = new double[employees];
+        double total = 0;
+        for (int i = 0; i < employees; i++) {
+            weights[i] = 0.25 + random.nextDouble() * 1.5;
+            total += weights[i];
+        }
+
+        long[] counts = new long[employees];
+        long assigned = 0;
+        for (int i = 0; i < employees; i++) {
+            counts[i] = (long) (reports * weights[i] / total);
+            assigned += counts[i];
+        }
+        for (int i = 0; assigned < reports; i = (i + 1) % employees) {
+            counts[i]++;
+            assigned++;
+        }
+        return counts;
+    }
+
+    private static LocalDate previousWorkday(LocalDate date, boolean inclusive) {
+        LocalDate result = inclusive ? date : date.minusDays(1);
+        while (result.getDayOfWeek() == DayOfWeek.SATURDAY || result.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            result = result.minusDays(1);
+        }
+        return result;
+    }
+
+    private static Object[] report(long id, String code, LocalDate reportDate, SplittableRandom random) {
+        String project = PROJECTS[random.nextInt(PROJECTS.length)];
+        String task = TASKS[random.nextInt(TASKS.length)];
+        String nextTask = TASKS[random.nextInt(TASKS.length)];
+        String title = project + " " + task;
+
+        StringBuilder content = new StringBuilder();
+        content.append("本日は").append(project).append("の").append(task).append("を行いました。\n");
+        int notes = 1 + random.nextInt(4);
+        for (int i = 0; i < notes; i++) {
+            content.append(NOTES[random.nextInt(NOTES.length)]).append('\n');
+        }
+        content.append("明日は").append(nextTask).append("を予定しています。");
+
+        // 提出は17:00～19:30に集中し、5件に1件程度は翌日に更新される
+        LocalDateTime createdAt = reportDate.atTime(LocalTime.of(17, 0)).plusMinutes(random.nextInt(150));
+        LocalDateTime updatedAt = random.nextInt(5) == 0
+                ? createdAt.plusDays(1).withHour(9).plusMinutes(random.nextInt(120))
+                : createdAt;
+
+        return new Object[] { id, reportDate, title, content.toString(), code, Timestamp.valueOf(createdAt),
+                Timestamp.valueOf(updatedAt) };
+    }
+
+    private int flushReports(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reports(id,report_date,title,content,employee_code,delete_flg,created_at,updated_at)"
+                + " VALUES (?,?,?,?,?,0,?,?)", batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+}
@@ -0,0 +1,36 @@
+package com.techacademy.datagen;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// 起動時に性能試験用のデータを生成する (--spring.profiles.active=datagen で有効)
+/*    例: java -jar DailyReportSystemApplication.jar --spring.profiles.active=datagen
+ *          --app.datagen.employees=5000 --app.datagen.reports=2000000 --app.datagen.seed=42    */
+@Profile("datagen")
+@Component
+public class DataGeneratorRunner implements CommandLineRunner {
+
+    private final DataGenerator dataGenerator;
+    private final DataGenerator.Settings settings;
+
+    public DataGeneratorRunner(DataGenerator dataGenerator,
+            @Value("${app.datagen.employees:1000}") int employees,
+            @Value("${app.datagen.reports:100000}") long reports,
+            @Value("${app.datagen.seed:1}") long seed,
+            @Value("${app.datagen.end-date:2024-12-27}") LocalDate endDate,
+            @Value("${app.datagen.code-prefix:D}") String codePrefix,
+            @Value("${app.datagen.password:password1}") String password,
+            @Value("${app.datagen.threads:4}") int threads) {
+        this.dataGenerator = dataGenerator;
+        this.settings = new DataGenerator.Settings(employees, reports, seed, endDate, codePrefix, password, threads);
+    }
+
+    @Override
+    public void run(String... args) {
+        dataGenerator.generate(settings);
+    }
+}
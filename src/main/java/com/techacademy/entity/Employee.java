@@ -4,9 +4,12 @@ package com.techacademy.entity;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.validator.constraints.Length;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -25,6 +28,11 @@ import lombok.ToString;
 @Entity
 @Table(name = "employees")
 @SQLRestriction("delete_flg = false")
+// 第2レベルキャッシュ (ehcache.xml)
+/*    キャッシュからの取得(findById等)には@SQLRestrictionが適用されないため、
+ *    論理削除した従業員はコミット後にキャッシュから破棄し、取得する側でも削除フラグを確認する (EmployeeRepository#findLiveById)    */
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Employee {
 
     public static enum Role {
@@ -12,22 +12,37 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = {
+        // 日報一覧のページング用 (日付, ID の降順)
+        @Index(name = "idx_reports_date_id", columnList = "report_date DESC, id DESC"),
+        @Index(name = "idx_reports_employee_date_id", columnList = "employee_code, report_date DESC, id DESC") },
+        // 同一従業員・同一日付の日報は1件のみ (論理削除済みの日報は対象外)
+        uniqueConstraints = @UniqueConstraint(name = "uk_reports_live_employee_date", columnNames = { "live_employee_code", "report_date" }))
 @SQLRestriction("delete_flg = false")
 public class Report {
     
+    // 採番テーブルから1回に払い出すIDの件数
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
     // ID
+    /*    IDENTITYではINSERTのたびにIDを取得する必要がありJDBCのバッチが使えないため、採番テーブルから50件ずつまとめて払い出す
+     *    (採番テーブルの値は払い出し済みの最後のID。hibernate.id.optimizer.pooled.preferred=pooled-lo)    */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "report_id")
+    @TableGenerator(name = "report_id", table = "id_generators", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "reports", allocationSize = Report.ID_ALLOCATION_SIZE)
     @Column(name = "id", nullable = false, updatable = false)
     private Long id;
     
@@ -69,6 +84,15 @@ public class Report {
     @Column(columnDefinition="TINYINT", nullable = false)
     private boolean deleteFlg;
     
+    // 従業員の削除時に合わせて論理削除したか (従業員の日報の一括復元の対象。個別に削除した日報は対象外)
+    @Column(columnDefinition="TINYINT DEFAULT 0", nullable = false)
+    private boolean deletedWithEmployee;
+    
+    // 未削除の日報の社員番号 (DBで自動計算。論理削除済みの場合はNULLとなり一意制約の対象外)
+    @Column(name = "live_employee_code", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(10) AS (CASE WHEN delete_flg = 0 THEN employee_code END) VIRTUAL")
+    private String liveEmployeeCode;
+    
     // 登録日時
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,119 @@
+package com.techacademy.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.techacademy.entity.Employee;
+
+import com.techacademy.security.BoundedPasswordEncoder;
+import com.techacademy.security.LoginThrottle;
+import com.techacademy.service.EmployeeDirectory;
+import com.techacademy.service.ReportSubmissionBatcher;
+import com.techacademy.view.FragmentCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// 従業員一覧のキャッシュ・第2レベルキャッシュのヒット率・描画済みの断片のキャッシュ・ログイン試行制限・パスワード照合用スレッドプール・日報のグループコミットのメトリクス
+@Component
+public class ApplicationMetrics implements MeterBinder {
+
+    private final EmployeeDirectory employeeDirectory;
+    private final LoginThrottle loginThrottle;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ReportSubmissionBatcher reportSubmissionBatcher;
+    private final Statistics statistics;
+    private final ObjectProvider<FragmentCache> fragmentCache;
+
+    public ApplicationMetrics(EmployeeDirectory employeeDirectory, LoginThrottle loginThrottle,
+            BoundedPasswordEncoder passwordEncoder, ReportSubmissionBatcher reportSubmissionBatcher,
+            EntityManagerFactory entityManagerFactory, ObjectProvider<FragmentCache> fragmentCache) {
+        this.employeeDirectory = employeeDirectory;
+        this.loginThrottle = loginThrottle;
+        this.passwordEncoder = passwordEncoder;
+        this.reportSubmissionBatcher = reportSubmissionBatcher;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // 従業員一覧のキャッシュ
+        FunctionCounter.builder("app.employee.directory.requests", employeeDirectory, EmployeeDirectory::getHitCount)
+                .tag("result", "hit").description("従業員一覧のキャッシュの参照回数").register(registry);
+        FunctionCounter.builder("app.employee.directory.requests", employeeDirectory, EmployeeDirectory::getMissCount)
+                .tag("result", "miss").description("従業員一覧のキャッシュの参照回数").register(registry);
+        FunctionCounter.builder("app.employee.directory.reloads", employeeDirectory, EmployeeDirectory::getReloadCount)
+                .description("従業員一覧の再読込回数").register(registry);
+
+        // 第2レベルキャッシュのヒット率 (ヒット・ミスの回数はhibernate.second.level.cache.requestsで公開される)
+        Gauge.builder("app.employee.cache.hit.ratio", this, metrics -> metrics.entityCacheHitRatio())
+                .tag("cache", "entity").description("従業員の第2レベルキャッシュのヒット率").register(registry);
+        Gauge.builder("app.employee.cache.hit.ratio", this, metrics -> metrics.queryCacheHitRatio())
+                .tag("cache", "query").description("従業員の全件検索の結果キャッシュのヒット率").register(registry);
+
+        // 描画済みの断片のキャッシュ (Webアプリケーションとして起動した場合のみ)
+        fragmentCache.ifAvailable(cache -> {
+            FunctionCounter.builder("app.fragment-cache.requests", cache, FragmentCache::getHitCount)
+                    .tag("result", "hit").description("描画済みの断片のキャッシュの参照回数").register(registry);
+            FunctionCounter.builder("app.fragment-cache.requests", cache, FragmentCache::getMissCount)
+                    .tag("result", "miss").description("描画済みの断片のキャッシュの参照回数").register(registry);
+            FunctionCounter.builder("app.fragment-cache.evictions", cache, FragmentCache::getEvictionCount)
+                    .description("文字数の上限により破棄した断片の件数").register(registry);
+            FunctionCounter.builder("app.fragment-cache.oversized", cache, FragmentCache::getOversizedCount)
+                    .description("1件の文字数の上限を超えたため保持しなかった断片の件数").register(registry);
+            Gauge.builder("app.fragment-cache.size", cache, FragmentCache::getSize)
+                    .description("保持している断片の件数").register(registry);
+            Gauge.builder("app.fragment-cache.chars", cache, FragmentCache::getTotalChars)
+                    .description("保持している断片の合計の文字数").register(registry);
+        });
+
+        // ログイン試行制限
+        FunctionCounter.builder("app.login.throttled", loginThrottle, LoginThrottle::getThrottledByCodeCount)
+                .tag("key", "code").description("試行回数の上限により拒否したログイン").register(registry);
+        FunctionCounter.builder("app.login.throttled", loginThrottle, LoginThrottle::getThrottledByAddressCount)
+                .tag("key", "address").description("試行回数の上限により拒否したログイン").register(registry);
+        Gauge.builder("app.login.throttle.buckets", loginThrottle, LoginThrottle::getBucketCount)
+                .description("保持している試行回数の件数").register(registry);
+
+        // パスワード照合用スレッドプール
+        Gauge.builder("app.password.hashing.active", passwordEncoder, BoundedPasswordEncoder::getActiveCount)
+                .description("ハッシュ化処理中のスレッド数").register(registry);
+        Gauge.builder("app.password.hashing.queue.size", passwordEncoder, BoundedPasswordEncoder::getQueueSize)
+                .description("ハッシュ化処理の待ち件数").register(registry);
+
+        // 日報のグループコミット (有効な場合のみ)
+        if (reportSubmissionBatcher.isEnabled()) {
+            FunctionCounter.builder("app.report.group-commit.batches", reportSubmissionBatcher, ReportSubmissionBatcher::getBatchCount)
+                    .description("まとめて登録したコミットの回数").register(registry);
+            FunctionCounter.builder("app.report.group-commit.reports", reportSubmissionBatcher, ReportSubmissionBatcher::getBatchedCount)
+                    .description("まとめて登録した日報の件数").register(registry);
+            FunctionCounter.builder("app.report.group-commit.retries", reportSubmissionBatcher, ReportSubmissionBatcher::getRetryCount)
+                    .description("一意制約違反により1件ずつ登録し直した回数").register(registry);
+            Gauge.builder("app.report.group-commit.queue.size", reportSubmissionBatcher, ReportSubmissionBatcher::getQueueSize)
+                    .description("登録待ちの日報の件数").register(registry);
+        }
+    }
+
+    // 従業員の第2レベルキャッシュのヒット率 (参照がない場合は0)
+    double entityCacheHitRatio() {
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Employee.class.getName());
+        return region == null ? 0 : hitRatio(region.getHitCount(), region.getMissCount());
+    }
+
+    // 問い合わせ結果のキャッシュ (従業員の全件検索のみ) のヒット率 (参照がない場合は0)
+    double queryCacheHitRatio() {
+        return hitRatio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount());
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+}
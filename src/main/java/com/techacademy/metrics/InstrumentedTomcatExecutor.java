@@ -0,0 +1,42 @@
+package com.techacademy.metrics;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+// コネクタのリクエスト処理用スレッドプール (Tomcat標準のスレッドプールに受付拒否の件数を追加)
+/*    待ち行列が満杯で処理できなかった接続はTomcatが切断するため、その件数を数える    */
+public class InstrumentedTomcatExecutor extends ThreadPoolExecutor {
+
+    private final LongAdder rejected = new LongAdder();
+
+    public InstrumentedTomcatExecutor(String namePrefix, int minSpareThreads, int maxThreads, int maxQueueSize) {
+        super(minSpareThreads, maxThreads, 60, TimeUnit.SECONDS, new TaskQueue(maxQueueSize),
+                new TaskThreadFactory(namePrefix, true, Thread.NORM_PRIORITY));
+        ((TaskQueue) getQueue()).setParent(this);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            super.execute(command);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    // 待ち行列の件数
+    public int getQueueSize() {
+        return getQueue().size();
+    }
+
+    // 受付を拒否した件数
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
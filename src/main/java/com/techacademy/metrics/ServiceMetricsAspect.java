@@ -0,0 +1,57 @@
+package com.techacademy.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import com.techacademy.constants.ErrorKinds;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// サービスのpublicメソッドの処理時間・呼出回数のメトリクス
+/*    結果がErrorKindsの場合はその種類を、例外の場合は例外クラス名をタグに設定する    */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private static final String METRIC_NAME = "app.service.invocations";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.techacademy.service.ReportService.*(..))"
+            + " || execution(public * com.techacademy.service.EmployeeService.*(..))"
+            + " || execution(public * com.techacademy.service.UserDetailService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = ErrorKinds.SUCCESS.name();
+        String exception = "none";
+
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof ErrorKinds errorKinds) {
+                outcome = errorKinds.name();
+            }
+            return result;
+        } catch (Throwable e) {
+            outcome = "EXCEPTION";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("サービスのメソッドの処理時間")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+}
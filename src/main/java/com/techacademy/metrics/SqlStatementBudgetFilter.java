@@ -0,0 +1,72 @@
+package com.techacademy.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+// 1リクエストで発行したSQLの件数が上限を超えた場合に警告を出力する
+/*    同じ形のSQLが繰り返し発行されている場合は N+1 の可能性があるため、件数付きで出力する    */
+@Slf4j
+@Component
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+    // 発行したSQLの件数を保持するリクエスト属性 (テストでの件数確認用)
+    public static final String STATEMENT_COUNT_ATTRIBUTE = SqlStatementBudgetFilter.class.getName()
+            + ".STATEMENT_COUNT";
+
+    // 件数に比例してSQLを発行する画面 (日報一覧(月)のチャンク読み込み等) で上限の確認を省略する場合に設定するリクエスト属性
+    public static final String BUDGET_EXEMPT_ATTRIBUTE = SqlStatementBudgetFilter.class.getName() + ".BUDGET_EXEMPT";
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final int budget;
+
+    public SqlStatementBudgetFilter(SqlStatementCounter sqlStatementCounter,
+            @Value("${app.sql.statement-budget:10}") int budget) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        sqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Map<String, Integer> statements = sqlStatementCounter.stop();
+            int count = statements.values().stream().mapToInt(Integer::intValue).sum();
+            request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, count);
+
+            if (count > budget && request.getAttribute(BUDGET_EXEMPT_ATTRIBUTE) == null) {
+                log.warn("SQL statement budget exceeded: {} {} issued {} statements (budget {}){}", request.getMethod(),
+                        endpoint(request), count, budget, describe(statements));
+            }
+        }
+    }
+
+    // URLのパターン (/reports/{id}/ 等) が取得できる場合はそちらを出力する
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+
+    private static String describe(Map<String, Integer> statements) {
+        return statements.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(e -> System.lineSeparator() + "  " + e.getValue() + " x " + e.getKey()
+                        + (e.getValue() > 1 ? "  <- repeated (possible N+1)" : ""))
+                .collect(Collectors.joining());
+    }
+}
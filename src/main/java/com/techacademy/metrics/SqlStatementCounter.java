@@ -0,0 +1,53 @@
+package com.techacademy.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+// Hibernateが発行するSQLをスレッドごとに数える
+/*    start()からstop()までの間に発行されたSQLを、形(空白を詰めたSQL文)ごとに件数を集計する    */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final long serialVersionUID = 1L;
+
+    // ログに出力するSQLの最大文字数
+    private static final int MAX_SHAPE_LENGTH = 200;
+
+    private static final ThreadLocal<Map<String, Integer>> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    // 集計開始
+    public void start() {
+        STATEMENTS.set(new LinkedHashMap<>());
+    }
+
+    // 集計終了 (SQLの形ごとの件数を返す)
+    public Map<String, Integer> stop() {
+        Map<String, Integer> statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? Map.of() : statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Map<String, Integer> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.merge(shape(sql), 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    private static String shape(String sql) {
+        String shape = sql.strip().replaceAll("\\s+", " ");
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape;
+    }
+}
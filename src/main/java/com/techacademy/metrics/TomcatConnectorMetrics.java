@@ -0,0 +1,90 @@
+package com.techacademy.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+// HTTP・AJPコネクタのスレッド・待ち行列・接続数のメトリクス
+/*    コネクタはTomcatConfigurationで登録し、アプリケーションの起動完了時にメトリクスとして公開する    */
+@Component
+public class TomcatConnectorMetrics implements ApplicationListener<ApplicationStartedEvent>, DisposableBean {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // コネクタ名 (http, ajp) ごとの登録内容
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+
+    public TomcatConnectorMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // コネクタの登録 (仮想スレッドで処理する場合はexecutorはnull)
+    public void register(String name, Connector connector, InstrumentedTomcatExecutor executor) {
+        registrations.put(name, new Registration(connector, executor));
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        registrations.forEach((name, registration) -> bind(registry, name, registration));
+    }
+
+    @Override
+    public void destroy() {
+        // 独自に作成したスレッドプールはTomcatが停止しないため、ここで停止する
+        for (Registration registration : registrations.values()) {
+            if (registration.executor() != null) {
+                registration.executor().shutdown();
+            }
+        }
+    }
+
+    private void bind(MeterRegistry registry, String name, Registration registration) {
+
+        Tags tags = Tags.of("connector", name);
+
+        if (registration.connector().getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+            Gauge.builder("tomcat.connector.connections.current", protocol, AbstractProtocol::getConnectionCount)
+                    .tags(tags).description("現在の接続数").register(registry);
+            Gauge.builder("tomcat.connector.connections.max", protocol, AbstractProtocol::getMaxConnections)
+                    .tags(tags).description("接続数の上限").register(registry);
+            Gauge.builder("tomcat.connector.accept.count", protocol, AbstractProtocol::getAcceptCount)
+                    .tags(tags).description("接続待ち(backlog)の上限").register(registry);
+        }
+
+        InstrumentedTomcatExecutor executor = registration.executor();
+        if (executor == null) {
+            return;
+        }
+
+        Gauge.builder("tomcat.connector.threads.busy", executor, InstrumentedTomcatExecutor::getActiveCount)
+                .tags(tags).description("処理中のスレッド数").register(registry);
+        Gauge.builder("tomcat.connector.threads.idle", executor, e -> Math.max(0, e.getPoolSize() - e.getActiveCount()))
+                .tags(tags).description("待機中のスレッド数").register(registry);
+        Gauge.builder("tomcat.connector.threads.max", executor, InstrumentedTomcatExecutor::getMaximumPoolSize)
+                .tags(tags).description("スレッド数の上限").register(registry);
+        Gauge.builder("tomcat.connector.queue.size", executor, InstrumentedTomcatExecutor::getQueueSize)
+                .tags(tags).description("スレッドの空きを待っているリクエスト数").register(registry);
+        FunctionCounter.builder("tomcat.connector.rejected", executor, InstrumentedTomcatExecutor::getRejectedCount)
+                .tags(tags).description("待ち行列が満杯で切断した接続数").register(registry);
+    }
+
+    private record Registration(Connector connector, InstrumentedTomcatExecutor executor) {
+    }
+}
@@ -1,8 +1,26 @@
 package com.techacademy.repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.techacademy.entity.Employee;
 
 public interface EmployeeRepository extends JpaRepository<Employee, String> {
-}
\ No newline at end of file
+
+    // [従業員] 全件を取得 (結果を第2レベルキャッシュに保持し、employeesテーブルが更新されるまで再利用する)
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Employee> findAll();
+
+    // [従業員] 削除されていない従業員を1件取得
+    /*    第2レベルキャッシュから取得した場合は@SQLRestrictionが適用されないため、削除フラグを確認する    */
+    default Optional<Employee> findLiveById(String code) {
+        return findById(code).filter(employee -> !employee.isDeleteFlg());
+    }
+}
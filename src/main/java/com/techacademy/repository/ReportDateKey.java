@@ -0,0 +1,7 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+
+// 日報の社員番号と日付の組 (同一従業員・同一日付の日報は1件のみ)
+public record ReportDateKey(String employeeCode, LocalDate reportDate) {
+}
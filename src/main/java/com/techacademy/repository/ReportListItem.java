@@ -0,0 +1,19 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+
+// 日報一覧表示用の項目 (内容(content)は含まない)
+public interface ReportListItem {
+
+    // ID
+    Long getId();
+
+    // 日付
+    LocalDate getReportDate();
+
+    // タイトル
+    String getTitle();
+
+    // 氏名
+    String getEmployeeName();
+}
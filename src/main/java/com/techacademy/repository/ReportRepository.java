@@ -1,22 +1,138 @@
 package com.techacademy.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
 
 public interface ReportRepository extends JpaRepository<Report, String> {
 
+    // [日報一覧] 一覧表示に必要な項目のみを従業員と結合して取得
+    String LIST_SELECT = "select r.id as id, r.reportDate as reportDate, r.title as title, e.name as employeeName"
+            + " from Report r join r.employee e ";
+
     Optional<Report> findById(Long id);
 
+    // [日報] 日報の社員番号のみを取得
+    @Query("select r.employee.code from Report r where r.id = :id")
+    Optional<String> findEmployeeCodeById(Long id);
+
+    // [日報] 所有者の社員番号と更新日時のみを取得 (詳細画面の条件付きGET用)
+    @Query("select new com.techacademy.repository.ReportVersionKey(r.employee.code, r.updatedAt) from Report r where r.id = :id")
+    Optional<ReportVersionKey> findVersionKeyById(Long id);
+
+    // [日報] 従業員情報と合わせて1件を取得 (1回のSQLで取得)
+    @Query("select r from Report r join fetch r.employee where r.id = :id")
+    Optional<Report> findWithEmployeeById(Long id);
+
     List<Report> findByEmployee(Employee currentUser);
 
-    List<Report> findByReportDateAndEmployeeAndDeleteFlgIsFalse(LocalDate reportDate, Employee employee);
+    boolean existsByReportDateAndEmployeeAndDeleteFlgIsFalse(LocalDate reportDate, Employee employee);
+
+    boolean existsByReportDateAndEmployeeAndDeleteFlgIsFalseAndIdNot(LocalDate reportDate, Employee employee, Long excludedReportId);
+
+    long countByEmployee(Employee employee);
+
+    // [日報一括登録] 指定した従業員・期間の登録済みの日付を取得 (重複チェック用)
+    @Query("select new com.techacademy.repository.ReportDateKey(r.employee.code, r.reportDate) from Report r"
+            + " where r.employee.code in :employeeCodes and r.reportDate between :fromDate and :toDate")
+    List<ReportDateKey> findDateKeys(Collection<String> employeeCodes, LocalDate fromDate, LocalDate toDate);
+
+    // [日報] 従業員の日報を一括で論理削除
+    /*    ネイティブSQLの更新は対象のテーブルを指定しないと第2レベルキャッシュ(従業員)が全て破棄されるため、reportsのみを指定する
+     *    復元 (restoreByEmployeeCode) の対象とするため、従業員の削除時に論理削除したことを記録する    */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reports"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE reports SET delete_flg = 1, deleted_with_employee = 1, updated_at = :now"
+            + " WHERE employee_code = :employeeCode AND delete_flg = 0",
+            nativeQuery = true)
+    int softDeleteByEmployeeCode(String employeeCode, LocalDateTime now);
+
+    // [日報] 従業員の削除時に論理削除した日報を一括で復元
+    /*    従業員の削除前に個別に削除していた日報は復元しない (deleted_with_employeeが設定されたもののみ対象)
+     *    同日の日報が既に存在する場合は一意制約違反となる    */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reports"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE reports SET delete_flg = 0, deleted_with_employee = 0, updated_at = :now"
+            + " WHERE employee_code = :employeeCode AND delete_flg = 1 AND deleted_with_employee = 1",
+            nativeQuery = true)
+    int restoreByEmployeeCode(String employeeCode, LocalDateTime now);
+
+    // [日報] 従業員の日報を別の従業員へ一括で付け替え
+    /*    付け替え先に同日の日報が既に存在する場合は一意制約違反となる    */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reports"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE reports SET employee_code = :toEmployeeCode, updated_at = :now WHERE employee_code = :fromEmployeeCode AND delete_flg = 0",
+            nativeQuery = true)
+    int reassignEmployee(String fromEmployeeCode, String toEmployeeCode, LocalDateTime now);
+
+    // [日報一覧] 先頭ページ (日付の新しい順)
+    @Query(LIST_SELECT + "order by r.reportDate desc, r.id desc")
+    List<ReportListItem> findFirstPage(Limit limit);
+
+    // [日報一覧] 指定位置より後ろ (古い側) のページ
+    @Query(LIST_SELECT + "where r.reportDate < :reportDate or (r.reportDate = :reportDate and r.id < :id)"
+            + " order by r.reportDate desc, r.id desc")
+    List<ReportListItem> findPageAfter(LocalDate reportDate, Long id, Limit limit);
+
+    // [日報一覧] 指定位置より前 (新しい側) のページ ※昇順で返却
+    @Query(LIST_SELECT + "where r.reportDate > :reportDate or (r.reportDate = :reportDate and r.id > :id)"
+            + " order by r.reportDate asc, r.id asc")
+    List<ReportListItem> findPageBefore(LocalDate reportDate, Long id, Limit limit);
+
+    // [日報一覧] 先頭ページ (従業員指定)
+    @Query(LIST_SELECT + "where r.employee = :employee order by r.reportDate desc, r.id desc")
+    List<ReportListItem> findFirstPageByEmployee(Employee employee, Limit limit);
+
+    // [日報一覧] 指定位置より後ろ (古い側) のページ (従業員指定)
+    @Query(LIST_SELECT + "where r.employee = :employee"
+            + " and (r.reportDate < :reportDate or (r.reportDate = :reportDate and r.id < :id))"
+            + " order by r.reportDate desc, r.id desc")
+    List<ReportListItem> findPageAfterByEmployee(Employee employee, LocalDate reportDate, Long id, Limit limit);
+
+    // [日報一覧] 指定位置より前 (新しい側) のページ (従業員指定) ※昇順で返却
+    @Query(LIST_SELECT + "where r.employee = :employee"
+            + " and (r.reportDate > :reportDate or (r.reportDate = :reportDate and r.id > :id))"
+            + " order by r.reportDate asc, r.id asc")
+    List<ReportListItem> findPageBeforeByEmployee(Employee employee, LocalDate reportDate, Long id, Limit limit);
+
+    // [日報一覧(月)] 期間内で指定位置より後ろ (古い側) の1チャンク分
+    /*    先頭のチャンクは (期間の翌日, Long.MAX_VALUE) を指定位置とする    */
+    @Query(LIST_SELECT + "where r.reportDate between :fromDate and :toDate"
+            + " and (r.reportDate < :reportDate or (r.reportDate = :reportDate and r.id < :id))"
+            + " order by r.reportDate desc, r.id desc")
+    List<ReportListItem> findChunkBetween(LocalDate fromDate, LocalDate toDate, LocalDate reportDate, Long id, Limit limit);
+
+    // [日報一覧(月)] 期間内で指定位置より後ろ (古い側) の1チャンク分 (従業員指定)
+    @Query(LIST_SELECT + "where r.employee = :employee and r.reportDate between :fromDate and :toDate"
+            + " and (r.reportDate < :reportDate or (r.reportDate = :reportDate and r.id < :id))"
+            + " order by r.reportDate desc, r.id desc")
+    List<ReportListItem> findChunkBetweenByEmployee(Employee employee, LocalDate fromDate, LocalDate toDate,
+            LocalDate reportDate, Long id, Limit limit);
 
-    List<Report> findByReportDateAndEmployeeAndDeleteFlgIsFalseAndIdNot(LocalDate reportDate, Employee employee, Long excludedReportId);
+    // [日報出力] 期間・従業員 (指定がない場合は全件) で絞り込み、日付の古い順に1行ずつ読み込む
+    /*    MySQLのドライバはフェッチサイズにInteger.MIN_VALUEを指定すると結果を全件メモリに載せずに1行ずつ返す
+     *    呼び出し側はトランザクション内でStreamを閉じるまで読み込み、読み込んだ日報はdetachすること    */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("select r from Report r join fetch r.employee e where r.deleteFlg = false"
+            + " and (:fromDate is null or r.reportDate >= :fromDate) and (:toDate is null or r.reportDate <= :toDate)"
+            + " and (:employeeCode is null or e.code = :employeeCode)"
+            + " order by r.reportDate asc, r.id asc")
+    Stream<Report> streamForExport(LocalDate fromDate, LocalDate toDate, String employeeCode);
 
-}
\ No newline at end of file
+}
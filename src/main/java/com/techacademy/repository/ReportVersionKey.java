@@ -0,0 +1,7 @@
+package com.techacademy.repository;
+
+import java.time.LocalDateTime;
+
+// 日報の所有者と更新日時 (詳細画面の条件付きGET用)
+public record ReportVersionKey(String employeeCode, LocalDateTime updatedAt) {
+}
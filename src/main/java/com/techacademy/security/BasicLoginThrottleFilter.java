@@ -0,0 +1,60 @@
+package com.techacademy.security;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationConverter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Basic認証 (管理用エンドポイント) の前で試行回数を制限するフィルタ
+/*    Basic認証はリクエストごとにBCryptで照合するため、ログイン処理 (LoginThrottleFilter) と同じ制限を適用する
+ *    Authorizationヘッダのない (またはBasic以外の) リクエストは対象外
+ *    認証に成功した場合は消費したトークンを戻す (収集ツールの定期的な参照は制限の対象としない)    */
+public class BasicLoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottle loginThrottle;
+    private final BasicAuthenticationConverter converter = new BasicAuthenticationConverter();
+
+    public BasicLoginThrottleFilter(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        UsernamePasswordAuthenticationToken token;
+        try {
+            token = converter.convert(request);
+        } catch (BadCredentialsException e) {
+            // ヘッダの形式が不正な場合はBasicAuthenticationFilterで401とする (照合は行われない)
+            token = null;
+        }
+
+        if (token != null && !loginThrottle.tryAcquire(token.getName(), request.getRemoteAddr())) {
+            // 制限を超えた場合は認証処理を行わずに429を返す
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+
+        // 認証に成功した場合はトークンを戻す (SecurityContextは呼び出し元のフィルタで破棄されるため、ここではまだ参照できる)
+        if (token != null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && token.getName().equals(authentication.getName())) {
+                loginThrottle.release(token.getName(), request.getRemoteAddr());
+            }
+        }
+    }
+}
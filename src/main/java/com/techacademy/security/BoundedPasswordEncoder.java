@@ -0,0 +1,150 @@
+package com.techacademy.security;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// 専用のスレッドプールでハッシュ化・照合を行うPasswordEncoder
+/*    BCryptは1回あたりのCPU負荷が高いため、同時に実行する数をプールの大きさで制限する    */
+/*    待ち行列が満杯、または待ち時間の上限を超えた場合はPasswordHashingBusyExceptionとする    */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final long timeoutMillis;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long timeoutMillis) {
+        this.delegate = delegate;
+        this.poolSize = poolSize;
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    // まとめてハッシュ化 (一括登録用。結果は引数と同じ順序で、混雑で実行できなかった分はnull)
+    /*    プールの全スレッドで並行して実行する。ログイン等の照合が後ろで長く待たないよう、
+     *    待ち行列に入れるのはプールの大きさの分までとし、1件終わるごとに次を入れる
+     *    1件ごとの待ち時間の上限は引数で指定する (画面からの1件の登録より長くできる)    */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords, long perPasswordTimeoutMillis) {
+
+        List<String> encoded = new ArrayList<>(Collections.nCopies(rawPasswords.size(), (String) null));
+        Deque<Pending> pending = new ArrayDeque<>(poolSize);
+        int next = 0;
+
+        while (next < rawPasswords.size() || !pending.isEmpty()) {
+            while (next < rawPasswords.size() && pending.size() < poolSize) {
+                CharSequence rawPassword = rawPasswords.get(next);
+                try {
+                    pending.add(new Pending(next, executor.submit(() -> delegate.encode(rawPassword))));
+                } catch (RejectedExecutionException e) {
+                    // 待ち行列が満杯の場合はnullのまま次へ
+                }
+                next++;
+            }
+            if (pending.isEmpty()) {
+                continue;
+            }
+
+            Pending oldest = pending.poll();
+            try {
+                encoded.set(oldest.index(), oldest.future().get(perPasswordTimeoutMillis, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                oldest.future().cancel(true);
+            } catch (InterruptedException e) {
+                // 残りは実行せずにnullのまま返す
+                oldest.future().cancel(true);
+                pending.forEach(remaining -> remaining.future().cancel(true));
+                Thread.currentThread().interrupt();
+                return encoded;
+            } catch (ExecutionException e) {
+                pending.forEach(remaining -> remaining.future().cancel(true));
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // ハッシュ値の解析のみのため呼び出し元のスレッドで実行
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // 実行中・待機中の件数
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> task) {
+
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException("Password hashing queue is full", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHashingBusyException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record Pending(int index, Future<String> future) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.techacademy.security;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// ログイン試行回数の制限 (社員番号ごと・接続元アドレスごと)
+/*    BCryptによる照合の前に判定し、制限を超えた試行ではハッシュ計算を行わない
+ *    認証に成功した試行は消費したトークンを戻すため、制限の対象は失敗した試行のみとなる
+ *    (同じNAT・プロキシを経由する事業所から多数の社員が同時にログインしても制限されない)    */
+@Component
+public class LoginThrottle {
+
+    private final TokenBucketLimiter codeLimiter;
+    private final TokenBucketLimiter addressLimiter;
+
+    // 制限した回数
+    private final LongAdder throttledByCode = new LongAdder();
+    private final LongAdder throttledByAddress = new LongAdder();
+
+    public LoginThrottle(@Value("${app.login.throttle.code.capacity:5}") int codeCapacity,
+            @Value("${app.login.throttle.code.refill-ms:10000}") long codeRefillMillis,
+            @Value("${app.login.throttle.address.capacity:30}") int addressCapacity,
+            @Value("${app.login.throttle.address.refill-ms:1000}") long addressRefillMillis,
+            @Value("${app.login.throttle.idle-ms:600000}") long idleMillis,
+            @Value("${app.login.throttle.max-entries:10000}") int maxEntries) {
+        this.codeLimiter = new TokenBucketLimiter(codeCapacity, codeRefillMillis, idleMillis, maxEntries);
+        this.addressLimiter = new TokenBucketLimiter(addressCapacity, addressRefillMillis, idleMillis, maxEntries);
+    }
+
+    // ログイン試行を許可するかのチェック
+    public boolean tryAcquire(String code, String remoteAddress) {
+
+        long now = System.currentTimeMillis();
+
+        if (remoteAddress != null && !addressLimiter.tryAcquire(remoteAddress, now)) {
+            throttledByAddress.increment();
+            return false;
+        }
+
+        if (code != null && !code.isEmpty() && !codeLimiter.tryAcquire(code, now)) {
+            throttledByCode.increment();
+            return false;
+        }
+
+        return true;
+    }
+
+    // 認証に成功した試行のトークンを戻す
+    public void release(String code, String remoteAddress) {
+
+        long now = System.currentTimeMillis();
+
+        if (remoteAddress != null) {
+            addressLimiter.refund(remoteAddress, now);
+        }
+
+        if (code != null && !code.isEmpty()) {
+            codeLimiter.refund(code, now);
+        }
+    }
+
+    public long getThrottledByCodeCount() {
+        return throttledByCode.sum();
+    }
+
+    public long getThrottledByAddressCount() {
+        return throttledByAddress.sum();
+    }
+
+    // 保持しているバケットの件数
+    public int getBucketCount() {
+        return codeLimiter.size() + addressLimiter.size();
+    }
+}
@@ -0,0 +1,43 @@
+package com.techacademy.security;
+
+import java.io.IOException;
+
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// ログイン処理 (POST /login) の前で試行回数を制限するフィルタ
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    // 対象のリクエスト (ログイン処理)
+    private static final RequestMatcher LOGIN_REQUEST = new AntPathRequestMatcher("/login", "POST");
+
+    private final LoginThrottle loginThrottle;
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !LOGIN_REQUEST.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!loginThrottle.tryAcquire(request.getParameter("username"), request.getRemoteAddr())) {
+            // 制限を超えた場合は認証処理を行わずにログイン画面へ戻す
+            response.sendRedirect(request.getContextPath() + "/login?throttled");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
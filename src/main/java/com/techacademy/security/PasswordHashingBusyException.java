@@ -0,0 +1,17 @@
+package com.techacademy.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// パスワードのハッシュ化処理が混雑している (待ち行列が満杯、または待ち時間の上限を超えた) 場合の例外
+/*    ログイン処理では認証失敗として扱われるため、AuthenticationServiceExceptionを継承する    */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,46 @@
+package com.techacademy.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.techacademy.entity.Employee;
+
+// 日報へのアクセス権限の判定
+/*    ログイン中の従業員情報(Authentication)と日報の社員番号のみで判定し、DBへの問い合わせは行わない    */
+/*    メソッドセキュリティの式からも @reportAuthorization.isOwnerOrAdmin(authentication, ...) として利用可能    */
+@Component("reportAuthorization")
+public class ReportAuthorization {
+
+    // 日報の所有者、または管理者であるかのチェック
+    public boolean isOwnerOrAdmin(Authentication authentication, String reportEmployeeCode) {
+
+        if (authentication == null || !authentication.isAuthenticated() || reportEmployeeCode == null) {
+            return false;
+        }
+
+        // 自分の日報の場合
+        if (reportEmployeeCode.equals(authentication.getName())) {
+            return true;
+        }
+
+        // 管理者の場合
+        return isAdmin(authentication);
+    }
+
+    // 管理者であるかのチェック
+    public boolean isAdmin(Authentication authentication) {
+
+        if (authentication == null) {
+            return false;
+        }
+
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (Employee.Role.ADMIN.toString().equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
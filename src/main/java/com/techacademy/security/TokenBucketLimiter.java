@@ -0,0 +1,138 @@
+package com.techacademy.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// キーごとのトークンバケットによる回数制限
+/*    キーのハッシュ値で分割した領域(stripe)ごとにロックを持ち、異なるキーの処理が同じロックで待たないようにする    */
+/*    一定時間使われていないバケットと、上限件数を超えた古いバケットは破棄するため、使用メモリは上限件数で抑えられる    */
+public class TokenBucketLimiter {
+
+    private static final int STRIPE_COUNT = 16;
+
+    // バケットの容量 (連続で許可する回数)
+    private final int capacity;
+
+    // トークン1個が補充されるまでの時間
+    private final long refillIntervalMillis;
+
+    // 使われていないバケットを破棄するまでの時間
+    private final long idleMillis;
+
+    // stripe1つあたりのバケットの上限件数
+    private final int maxEntriesPerStripe;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    public TokenBucketLimiter(int capacity, long refillIntervalMillis, long idleMillis, int maxEntries) {
+        this.capacity = capacity;
+        this.refillIntervalMillis = refillIntervalMillis;
+        this.idleMillis = idleMillis;
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPE_COUNT);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // トークンを1個消費 (トークンがない場合はfalseを返す)
+    public boolean tryAcquire(String key, long nowMillis) {
+
+        Stripe stripe = stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPE_COUNT];
+
+        stripe.lock.lock();
+        try {
+            evict(stripe, nowMillis);
+
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, nowMillis);
+                stripe.buckets.put(key, bucket);
+            }
+
+            return bucket.tryConsume(nowMillis);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // 消費したトークンを1個戻す (バケットが破棄済みの場合は何もしない)
+    public void refund(String key, long nowMillis) {
+
+        Stripe stripe = stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPE_COUNT];
+
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket != null) {
+                bucket.refund(nowMillis);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // 保持しているバケットの件数
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.buckets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    // 使われていないバケット、上限件数を超えた古いバケットを破棄 (アクセス順のため先頭から確認)
+    private void evict(Stripe stripe, long nowMillis) {
+        Iterator<Bucket> iterator = stripe.buckets.values().iterator();
+        while (iterator.hasNext()) {
+            Bucket eldest = iterator.next();
+            if (stripe.buckets.size() < maxEntriesPerStripe && nowMillis - eldest.lastAccessMillis < idleMillis) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long lastRefillMillis;
+        private long lastAccessMillis;
+
+        private Bucket(double tokens, long nowMillis) {
+            this.tokens = tokens;
+            this.lastRefillMillis = nowMillis;
+            this.lastAccessMillis = nowMillis;
+        }
+
+        private boolean tryConsume(long nowMillis) {
+            // 経過時間に応じてトークンを補充
+            if (nowMillis > lastRefillMillis) {
+                tokens = Math.min(capacity, tokens + (double) (nowMillis - lastRefillMillis) / refillIntervalMillis);
+                lastRefillMillis = nowMillis;
+            }
+            lastAccessMillis = nowMillis;
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        private void refund(long nowMillis) {
+            tokens = Math.min(capacity, tokens + 1);
+            lastAccessMillis = nowMillis;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.techacademy.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.constants.ErrorMessage;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.repository.ReportDateKey;
+import com.techacademy.repository.ReportRepository;
+import com.techacademy.security.BoundedPasswordEncoder;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 従業員・日報の一括登録 (CSV)
+/*    1行ずつ画面からの登録と同じ規則で検証し、正しい行のみCHUNK_SIZE件ごとに1トランザクションで登録する
+ *    (INSERTはhibernate.jdbc.batch_size件ごとにJDBCのバッチで送信される)
+ *    誤りのある行はエラーとして返し、他の行の登録は続ける
+ *    従業員のパスワードは正しい行のみCHUNK_SIZE件ごとにまとめてハッシュ化する (BoundedPasswordEncoder.encodeAll)    */
+@Slf4j
+@Service
+public class BulkImportService {
+
+    // 見出し行
+    public static final String[] EMPLOYEE_HEADER = { "code", "name", "role", "password" };
+    public static final String[] REPORT_HEADER = { "employee_code", "report_date", "title", "content" };
+
+    // 1トランザクションで登録する件数
+    private static final int CHUNK_SIZE = 500;
+
+    private final EmployeeService employeeService;
+    private final ReportService reportService;
+    private final ReportRepository reportRepository;
+    private final EmployeeDirectory employeeDirectory;
+    private final ReportListVersion reportListVersion;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final long passwordTimeoutMillis;
+
+    public BulkImportService(EmployeeService employeeService, ReportService reportService, ReportRepository reportRepository,
+            EmployeeDirectory employeeDirectory, ReportListVersion reportListVersion, EntityManager entityManager,
+            TransactionTemplate transactionTemplate, Validator validator, BoundedPasswordEncoder passwordEncoder,
+            @Value("${app.import.password-hashing.timeout-ms:30000}") long passwordTimeoutMillis) {
+        this.employeeService = employeeService;
+        this.reportService = reportService;
+        this.reportRepository = reportRepository;
+        this.employeeDirectory = employeeDirectory;
+        this.reportListVersion = reportListVersion;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordTimeoutMillis = passwordTimeoutMillis;
+    }
+
+    // [従業員] 一括登録
+    public ImportResult importEmployees(InputStream inputStream) throws IOException {
+
+        ImportResult result = new ImportResult();
+        CsvReader csv = new CsvReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        if (!readHeader(csv, EMPLOYEE_HEADER, result)) {
+            return result;
+        }
+
+        // ファイル内の社員番号 (重複チェック用)
+        Set<String> codes = new HashSet<>();
+        List<Row<Employee>> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        List<String> fields;
+        while ((fields = readRow(csv, result)) != null) {
+            result.addRow();
+            Employee employee = toEmployee(csv.getRowNumber(), fields, codes, result);
+            if (employee != null) {
+                chunk.add(new Row<>(csv.getRowNumber(), employee));
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                persistEmployees(chunk, result);
+                chunk.clear();
+            }
+        }
+        persistEmployees(chunk, result);
+
+        // 従業員名簿は最後に1回だけ読み込み直す
+        if (result.getImportedCount() > 0) {
+            employeeDirectory.reloadAfterCommit();
+        }
+
+        log.info("Imported {} of {} employees", result.getImportedCount(), result.getRowCount());
+        return result;
+    }
+
+    // [日報] 一括登録
+    public ImportResult importReports(InputStream inputStream) throws IOException {
+
+        ImportResult result = new ImportResult();
+        CsvReader csv = new CsvReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        if (!readHeader(csv, REPORT_HEADER, result)) {
+            return result;
+        }
+
+        // ファイル内の社員番号と日付の組 (重複チェック用)
+        Set<ReportDateKey> keys = new HashSet<>();
+        List<Row<Report>> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        List<String> fields;
+        while ((fields = readRow(csv, result)) != null) {
+            result.addRow();
+            Report report = toReport(csv.getRowNumber(), fields, keys, result);
+            if (report != null) {
+                chunk.add(new Row<>(csv.getRowNumber(), report));
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                persistReports(chunk, result);
+                chunk.clear();
+            }
+        }
+        persistReports(chunk, result);
+        if (result.getImportedCount() > 0) {
+            reportListVersion.incrementAfterCommit();
+        }
+
+        log.info("Imported {} of {} reports", result.getImportedCount(), result.getRowCount());
+        return result;
+    }
+
+    // 見出し行のチェック (見出し行が正しくない場合はファイル全体をエラーとする)
+    private boolean readHeader(CsvReader csv, String[] header, ImportResult result) throws IOException {
+
+        List<String> fields;
+        try {
+            fields = csv.readRow();
+        } catch (CsvReader.FieldTooLongException e) {
+            fields = null;
+        }
+        if (fields == null || fields.size() != header.length) {
+            result.addError(1, null, ErrorKinds.IMPORT_FORMAT_ERROR);
+            return false;
+        }
+
+        for (int i = 0; i < header.length; i++) {
+            if (!header[i].equalsIgnoreCase(fields.get(i).trim())) {
+                result.addError(1, null, ErrorKinds.IMPORT_FORMAT_ERROR);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // 1行を読み込む (値が長すぎる場合はエラーを追加し、以降の行は読み込まずにnullを返す)
+    private static List<String> readRow(CsvReader csv, ImportResult result) throws IOException {
+        try {
+            return csv.readRow();
+        } catch (CsvReader.FieldTooLongException e) {
+            result.addRow();
+            result.addError(csv.getRowNumber(), null, ErrorKinds.IMPORT_FIELD_LENGTH_ERROR);
+            return null;
+        }
+    }
+
+    // [従業員] 1行分の検証 (誤りがある場合はエラーを追加してnullを返す)
+    private Employee toEmployee(int row, List<String> fields, Set<String> codes, ImportResult result) {
+
+        if (fields.size() != EMPLOYEE_HEADER.length) {
+            result.addError(row, null, ErrorKinds.IMPORT_FORMAT_ERROR);
+            return null;
+        }
+
+        Employee employee = new Employee();
+        employee.setCode(fields.get(0).trim());
+        employee.setName(fields.get(1).trim());
+        employee.setPassword(fields.get(3));
+        boolean valid = true;
+
+        // 入力チェック (画面からの登録と同じ社員番号・氏名の検証)
+        for (ConstraintViolation<Employee> violation : validator.validate(employee)) {
+            result.addError(row, violation.getPropertyPath().toString(), violation.getMessage());
+            valid = false;
+        }
+
+        // 権限チェック (GENERAL / ADMIN)
+        try {
+            employee.setRole(Employee.Role.valueOf(fields.get(2).trim()));
+        } catch (IllegalArgumentException e) {
+            result.addError(row, "role", ErrorKinds.IMPORT_VALUE_ERROR);
+            valid = false;
+        }
+
+        // 従業員番号重複チェック (登録済みの従業員・ファイル内の前の行)
+        if (!employee.getCode().isEmpty() && (employeeService.findByCode(employee.getCode()) != null || !codes.add(employee.getCode()))) {
+            result.addError(row, "code", ErrorKinds.DUPLICATE_ERROR);
+            valid = false;
+        }
+
+        // パスワード空白チェック・入力仕様のチェック
+        ErrorKinds passwordCheck = employee.getPassword().isEmpty() ? ErrorKinds.BLANK_ERROR
+                : employeeService.employeePasswordFormatCheck(employee);
+        if (ErrorMessage.contains(passwordCheck)) {
+            result.addError(row, "password", passwordCheck);
+            valid = false;
+        }
+
+        if (!valid) {
+            return null;
+        }
+
+        employee.setDeleteFlg(false);
+        LocalDateTime now = LocalDateTime.now();
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+
+        return employee;
+    }
+
+    // [日報] 1行分の検証 (誤りがある場合はエラーを追加してnullを返す)
+    private Report toReport(int row, List<String> fields, Set<ReportDateKey> keys, ImportResult result) {
+
+        if (fields.size() != REPORT_HEADER.length) {
+            result.addError(row, null, ErrorKinds.IMPORT_FORMAT_ERROR);
+            return null;
+        }
+
+        String code = fields.get(0).trim();
+        String reportDate = fields.get(1).trim();
+        Report report = new Report();
+        report.setTitle(fields.get(2));
+        report.setContent(fields.get(3));
+
+        // 空白チェック
+        if (code.isEmpty() || reportDate.isEmpty() || report.getTitle().isEmpty() || report.getContent().isEmpty()) {
+            result.addError(row, null, ErrorKinds.REPORT_BLANK_ERROR);
+            return null;
+        }
+        boolean valid = true;
+
+        // 社員番号の存在チェック (削除済みの従業員は登録不可)
+        Employee employee = employeeService.findByCode(code);
+        if (employee == null) {
+            result.addError(row, "employee_code", ErrorKinds.IMPORT_EMPLOYEE_ERROR);
+            valid = false;
+        }
+        report.setEmployee(employee);
+
+        // 日付の形式チェック (yyyy-MM-dd)
+        try {
+            report.setReportDate(LocalDate.parse(reportDate));
+        } catch (DateTimeParseException e) {
+            result.addError(row, "report_date", ErrorKinds.IMPORT_VALUE_ERROR);
+            valid = false;
+        }
+
+        // 日報の文字数チェック
+        ErrorKinds reportTitleSizeCheck = reportService.reportTitleSizeCheck(report);
+        if (ErrorMessage.contains(reportTitleSizeCheck)) {
+            result.addError(row, "title", reportTitleSizeCheck);
+            valid = false;
+        }
+        ErrorKinds reportContentSizeCheck = reportService.reportContentSizeCheck(report);
+        if (ErrorMessage.contains(reportContentSizeCheck)) {
+            result.addError(row, "content", reportContentSizeCheck);
+            valid = false;
+        }
+
+        // 同日の日報重複チェック (ファイル内の前の行。登録済みの日報はまとめて登録する前にチェック)
+        if (valid && !keys.add(new ReportDateKey(code, report.getReportDate()))) {
+            result.addError(row, "report_date", ErrorKinds.DATECHECK_ERROR);
+            valid = false;
+        }
+
+        if (!valid) {
+            return null;
+        }
+
+        report.setDeleteFlg(false);
+        LocalDateTime now = LocalDateTime.now();
+        report.setCreatedAt(now);
+        report.setUpdatedAt(now);
+
+        return report;
+    }
+
+    // [従業員] パスワードをまとめてハッシュ化してから登録
+    private void persistEmployees(List<Row<Employee>> rows, ImportResult result) {
+
+        // ハッシュ化は時間がかかるため、他の項目が正しい行のみまとめて並行して行う
+        // 混雑でハッシュ化できなかった行は入力の誤りと分けて返す
+        List<String> encoded = passwordEncoder.encodeAll(rows.stream().map(row -> row.entity().getPassword()).toList(),
+                passwordTimeoutMillis);
+        List<Row<Employee>> hashedRows = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row<Employee> row = rows.get(i);
+            if (encoded.get(i) == null) {
+                result.addBusy(row.number());
+            } else {
+                row.entity().setPassword(encoded.get(i));
+                hashedRows.add(row);
+            }
+        }
+
+        // 論理削除済みの従業員と社員番号が重複する場合は一意制約違反となる
+        persist(hashedRows, ErrorKinds.DUPLICATE_EXCEPTION_ERROR, "code", employee -> {
+        }, result);
+    }
+
+    // [日報] 登録済みの日報との重複チェックを行ってからまとめて登録
+    private void persistReports(List<Row<Report>> rows, ImportResult result) {
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // 対象の従業員・期間の登録済みの日付を1回のSQLで取得
+        Set<String> codes = new HashSet<>();
+        LocalDate fromDate = LocalDate.MAX;
+        LocalDate toDate = LocalDate.MIN;
+        for (Row<Report> row : rows) {
+            codes.add(row.entity().getEmployeeCode());
+            LocalDate reportDate = row.entity().getReportDate();
+            fromDate = reportDate.isBefore(fromDate) ? reportDate : fromDate;
+            toDate = reportDate.isAfter(toDate) ? reportDate : toDate;
+        }
+        Set<ReportDateKey> existing = new HashSet<>(reportRepository.findDateKeys(codes, fromDate, toDate));
+
+        List<Row<Report>> newRows = new ArrayList<>(rows.size());
+        for (Row<Report> row : rows) {
+            if (existing.contains(new ReportDateKey(row.entity().getEmployeeCode(), row.entity().getReportDate()))) {
+                result.addError(row.number(), "report_date", ErrorKinds.DATECHECK_ERROR);
+            } else {
+                newRows.add(row);
+            }
+        }
+
+        // 従業員は参照のみ設定 (従業員名簿の従業員情報は永続化コンテキスト外のため)
+        // 登録し直す場合に備えてIDは毎回払い出す
+        persist(newRows, ErrorKinds.DATECHECK_ERROR, "report_date", report -> {
+            report.setId(null);
+            report.setEmployee(entityManager.getReference(Employee.class, report.getEmployeeCode()));
+        }, result);
+    }
+
+    // まとめて登録
+    /*    一意制約違反 (検証後に同じ社員番号・日付が登録された場合など) で失敗した場合は、
+     *    その分のみ1件ずつ登録し直し、失敗した行をエラーとする    */
+    private <T> void persist(List<Row<T>> rows, ErrorKinds conflictError, String conflictColumn, Consumer<T> prepare,
+            ImportResult result) {
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persistAll(rows, prepare));
+            result.addImported(rows.size());
+            return;
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            log.info("Batch insert of {} rows failed, retrying one by one: {}", rows.size(), e.getMessage());
+        }
+
+        for (Row<T> row : rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> persistAll(List.of(row), prepare));
+                result.addImported(1);
+            } catch (DataIntegrityViolationException | PersistenceException e) {
+                result.addError(row.number(), conflictColumn, conflictError);
+            }
+        }
+    }
+
+    private <T> void persistAll(List<Row<T>> rows, Consumer<T> prepare) {
+        for (Row<T> row : rows) {
+            prepare.accept(row.entity());
+            entityManager.persist(row.entity());
+        }
+
+        // 登録した分は永続化コンテキストから切り離す
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // CSVの行番号と登録する内容
+    private record Row<T>(int number, T entity) {
+    }
+}
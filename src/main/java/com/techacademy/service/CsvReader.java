@@ -0,0 +1,115 @@
+package com.techacademy.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// CSVの読み込み (RFC 4180形式。ダブルクォートで囲んだ値の中のカンマ・改行・"" に対応)
+/*    1行ずつ読み込むため、ファイルの大きさによらずメモリ使用量は一定 (1つの値はMAX_FIELD_LENGTH文字まで)    */
+class CsvReader {
+
+    private static final char BOM = '\uFEFF';
+
+    // 1つの値の文字数の上限 (閉じていないダブルクォートでファイルの終わりまでを1つの値として読み込まないようにする)
+    static final int MAX_FIELD_LENGTH = 10000;
+
+    private final PushbackReader reader;
+
+    // 直前に読み込んだ行の行番号 (1始まり。値の中の改行は数えない)
+    private int rowNumber;
+
+    CsvReader(Reader reader) throws IOException {
+        this.reader = new PushbackReader(new BufferedReader(reader), 1);
+
+        // 先頭のBOMは読み飛ばす (Excelで保存したCSVに付与される)
+        int first = this.reader.read();
+        if (first != BOM && first != -1) {
+            this.reader.unread(first);
+        }
+    }
+
+    // 1行を読み込む (ファイルの終わりの場合はnullを返す。空行は読み飛ばす)
+    List<String> readRow() throws IOException {
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            rowNumber++;
+
+            List<String> fields = readFields(c);
+            if (fields.size() > 1 || !fields.get(0).isEmpty()) {
+                return fields;
+            }
+        }
+    }
+
+    int getRowNumber() {
+        return rowNumber;
+    }
+
+    private List<String> readFields(int c) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    // 閉じていないダブルクォートはファイルの終わりまでを値とする
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    append(field, (char) c);
+                }
+            } else if (c == -1 || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = reader.read();
+                    if (next != '\n' && next != -1) {
+                        reader.unread(next);
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                append(field, (char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private void append(StringBuilder field, char c) throws FieldTooLongException {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new FieldTooLongException(rowNumber);
+        }
+        field.append(c);
+    }
+
+    // 値が上限の文字数を超えた場合の例外 (以降は行を正しく区切れないため、呼び出し元は読み込みを中止する)
+    static class FieldTooLongException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        FieldTooLongException(int rowNumber) {
+            super("CSV field exceeds " + MAX_FIELD_LENGTH + " characters at row " + rowNumber);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.techacademy.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.repository.EmployeeRepository;
+
+// 従業員名簿 (削除されていない全従業員をメモリ上に保持)
+/*    従業員の登録・更新・削除がコミットされるたびにスナップショットを丸ごと差し替える
+ *    スナップショットの従業員は全リクエストで共有するため、呼び出し側には毎回複製を返す    */
+@Component
+public class EmployeeDirectory {
+
+    private final EmployeeRepository employeeRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // 現在のスナップショット (未読込の場合はnull)
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // 統計情報
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    @Autowired
+    public EmployeeDirectory(EmployeeRepository employeeRepository, EntityManagerFactory entityManagerFactory) {
+        this.employeeRepository = employeeRepository;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    // 全従業員を返却 (複製のリスト。リスト自体は変更不可)
+    public List<Employee> findAll() {
+        return current().employees().stream().map(EmployeeDirectory::copyOf).toList();
+    }
+
+    // 1件を検索 (複製を返す。存在しない場合はnullを返す)
+    public Employee findByCode(String code) {
+        Employee employee = current().employeeMap().get(code);
+        return employee == null ? null : copyOf(employee);
+    }
+
+    // 現在のスナップショットのバージョン (差し替えのたびに増加)
+    public long getVersion() {
+        return current().version();
+    }
+
+    // スナップショットから返却した回数
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    // スナップショットが未読込でDBから読み込んだ回数
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // DBから読み込んでスナップショットを差し替えた回数
+    public long getReloadCount() {
+        return reloads.sum();
+    }
+
+    // 現在のトランザクションのコミット後にスナップショットを差し替える
+    /*    トランザクション外で呼ばれた場合は即座に差し替える    */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    // 現在のトランザクションのコミット後に従業員を第2レベルキャッシュから破棄する (論理削除用)
+    /*    コミット時にキャッシュは削除フラグがTRUEの内容で更新されるため、findByIdで取得されないよう破棄する    */
+    public void evictAfterCommit(String code) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityManagerFactory.getCache().evict(Employee.class, code);
+                }
+            });
+        } else {
+            entityManagerFactory.getCache().evict(Employee.class, code);
+        }
+    }
+
+    // JPAを経由せずDBを直接更新した後に、第2レベルキャッシュを破棄してからスナップショットを差し替える
+    public synchronized void reloadExternalChanges() {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(Employee.class);
+        cache.evictQueryRegions();
+        reload();
+    }
+
+    // DBから読み込んでスナップショットを差し替える
+    private synchronized Snapshot reload() {
+
+        Map<String, Employee> employeeMap = new LinkedHashMap<>();
+        for (Employee employee : employeeRepository.findAll()) {
+            employeeMap.put(employee.getCode(), copyOf(employee));
+        }
+
+        Snapshot current = snapshot.get();
+        Snapshot reloaded = new Snapshot(current == null ? 1 : current.version() + 1,
+                Collections.unmodifiableList(new ArrayList<>(employeeMap.values())), Collections.unmodifiableMap(employeeMap));
+        snapshot.set(reloaded);
+        reloads.increment();
+
+        return reloaded;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+
+        misses.increment();
+        synchronized (this) {
+            current = snapshot.get();
+            return current != null ? current : reload();
+        }
+    }
+
+    // 永続化コンテキストから切り離した複製を作成 (日報のリレーションは保持しない。スナップショットへの格納・返却時に使用)
+    private static Employee copyOf(Employee employee) {
+        Employee copy = new Employee();
+        copy.setCode(employee.getCode());
+        copy.setName(employee.getName());
+        copy.setRole(employee.getRole());
+        copy.setPassword(employee.getPassword());
+        copy.setDeleteFlg(employee.isDeleteFlg());
+        copy.setCreatedAt(employee.getCreatedAt());
+        copy.setUpdatedAt(employee.getUpdatedAt());
+        return copy;
+    }
+
+    // 従業員名簿のスナップショット (外部には公開しない)
+    private record Snapshot(long version, List<Employee> employees, Map<String, Employee> employeeMap) {
+    }
+}
@@ -2,7 +2,6 @@ package com.techacademy.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -11,12 +10,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.entity.Employee;
-import com.techacademy.entity.Report;
 import com.techacademy.repository.EmployeeRepository;
 import com.techacademy.repository.ReportRepository;
+import com.techacademy.security.PasswordHashingBusyException;
 
 import io.micrometer.common.util.StringUtils;
 
@@ -25,15 +26,23 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class EmployeeService {
 
+    // ログイン中の従業員情報を保持するリクエスト属性名
+    private static final String LOGGED_IN_EMPLOYEE_ATTRIBUTE = EmployeeService.class.getName() + ".LOGGED_IN_EMPLOYEE";
+
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
     private final ReportRepository reportRepository;
+    private final EmployeeDirectory employeeDirectory;
+    private final ReportListVersion reportListVersion;
     
     @Autowired
-    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder, ReportRepository reportRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder, ReportRepository reportRepository,
+            EmployeeDirectory employeeDirectory, ReportListVersion reportListVersion) {
         this.employeeRepository = employeeRepository;
         this.passwordEncoder = passwordEncoder;
         this.reportRepository = reportRepository;
+        this.employeeDirectory = employeeDirectory;
+        this.reportListVersion = reportListVersion;
     }
 
     // 従業員保存
@@ -51,6 +60,7 @@ public class EmployeeService {
         employee.setUpdatedAt(now);
         
         employeeRepository.save(employee);
+        employeeDirectory.reloadAfterCommit();
         
         return ErrorKinds.SUCCESS;
     }
@@ -60,7 +70,7 @@ public class EmployeeService {
     public ErrorKinds update(Employee employee) {
         
         // DBから従業員情報を取得
-        Employee existingEmployee = findByCode(employee.getCode());
+        Employee existingEmployee = employeeRepository.findLiveById(employee.getCode()).orElse(null);
         if (existingEmployee == null) {
             return ErrorKinds.INPUT_ERROR;
         }
@@ -80,6 +90,8 @@ public class EmployeeService {
         
         // 保存
         employeeRepository.save(existingEmployee);
+        evictLoggedInEmployeeInfo(existingEmployee.getCode());
+        employeeDirectory.reloadAfterCommit();
 
         return ErrorKinds.SUCCESS;
     }
@@ -89,62 +101,78 @@ public class EmployeeService {
     public ErrorKinds delete(String code, UserDetail userDetail) {
         
         // 管理者権限のチェック
-        if (!userDetail.getEmployee().getRole().equals(Employee.Role.ADMIN)) {
+        if (!userDetail.getRole().equals(Employee.Role.ADMIN)) {
             return ErrorKinds.INPUT_ERROR;
         }
         
         // 自分を削除しようとした場合はエラーメッセージを表示
-        if (code.equals(userDetail.getEmployee().getCode())) {
+        if (code.equals(userDetail.getCode())) {
             return ErrorKinds.LOGINCHECK_ERROR;
         }
         
         // 従業員の存在確認チェック
-        Employee employee = findByCode(code);
+        Employee employee = employeeRepository.findLiveById(code).orElse(null);
         if (employee == null) {
             return ErrorKinds.INPUT_ERROR;
         }
 
-        // 該当従業員の日報を論理削除
-        List<Report> reports = reportRepository.findByEmployee(employee);
-        LocalDateTime now = LocalDateTime.now();
-        // 個々の日報を更新
-        for (Report report : reports) {
-            report.setDeleteFlg(true);
-            report.setUpdatedAt(now);
-            reportRepository.save(report);
-        }
-
         // 従業員を論理削除
+        LocalDateTime now = LocalDateTime.now();
         employee.setDeleteFlg(true);
         employee.setUpdatedAt(now);
         employeeRepository.save(employee);
+        evictLoggedInEmployeeInfo(employee.getCode());
+        employeeDirectory.evictAfterCommit(employee.getCode());
+        employeeDirectory.reloadAfterCommit();
+
+        // 該当従業員の日報を1回のUPDATE文で論理削除 (JPAを経由しないため日報一覧のバージョンを進める)
+        reportRepository.softDeleteByEmployeeCode(employee.getCode(), now);
+        reportListVersion.incrementAfterCommit();
 
         return ErrorKinds.SUCCESS;
     }
     
-    // 従業員一覧表示処理
+    // 従業員一覧表示処理 (従業員名簿から返却)
     public List<Employee> findAll() {
-        return employeeRepository.findAll();
+        return employeeDirectory.findAll();
     }
     
     // 現在ログインしている従業員情報の返却
+    /*    同一リクエスト内では1回だけDBから取得し、以降はリクエスト属性に保持した値を返す    */
     public Employee getLoggedInEmployeeInfo() {
         
-        // 現在の従業員の詳細を取得
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
         // 従業員の識別子を取得
-        String code = userDetails.getUsername();
+        String code = getLoggedInEmployeeCode();
+        
+        // 同一リクエスト内で取得済みの場合はその値を返す
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(LOGGED_IN_EMPLOYEE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Employee cached
+                && code.equals(cached.getCode())) {
+            return cached;
+        }
         
-        // DBからfindByIdで検索
-        Optional<Employee> option = employeeRepository.findById(code);
+        // 従業員名簿から検索 (取得できなかった場合はnull)
+        Employee employee = findByCode(code);
         
-        // 取得できなかった場合はnullを返す
-        Employee employee = option.orElse(null);
+        if (requestAttributes != null && employee != null) {
+            requestAttributes.setAttribute(LOGGED_IN_EMPLOYEE_ATTRIBUTE, employee, RequestAttributes.SCOPE_REQUEST);
+        }
         
         return employee;
     }
     
+    // リクエスト内に保持したログイン中の従業員情報を破棄 (指定の従業員の場合のみ)
+    private void evictLoggedInEmployeeInfo(String code) {
+        
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(LOGGED_IN_EMPLOYEE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Employee cached
+                && cached.getCode().equals(code)) {
+            requestAttributes.removeAttribute(LOGGED_IN_EMPLOYEE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+    
     // 現在ログインしている従業員のコードを返却
     public String getLoggedInEmployeeCode() {
         
@@ -155,21 +183,33 @@ public class EmployeeService {
         return userDetails.getUsername();
     }
     
-    // 1件を検索
+    // 1件を検索 (従業員名簿から返却。取得できなかった場合はnull)
     public Employee findByCode(String code) {
-        
-        // findByIdで検索
-        Optional<Employee> option = employeeRepository.findById(code);
-        
-        // 取得できなかった場合はnullを返す
-        Employee employee = option.orElse(null);
-        
-        return employee;
+        return employeeDirectory.findByCode(code);
     }
 
     // 従業員パスワードチェック
     public ErrorKinds employeePasswordCheck(Employee employee) {
         
+        // 入力仕様のチェック
+        ErrorKinds formatCheck = employeePasswordFormatCheck(employee);
+        if (formatCheck != ErrorKinds.CHECK_OK) {
+            return formatCheck;
+        }
+        
+        // ハッシュ化 (混雑時はエラーを返す)
+        try {
+            employee.setPassword(passwordEncoder.encode(employee.getPassword()));
+        } catch (PasswordHashingBusyException e) {
+            return ErrorKinds.PASSWORD_BUSY_ERROR;
+        }
+
+        return ErrorKinds.CHECK_OK;
+    }
+
+    // 従業員パスワードの入力仕様チェック (ハッシュ化は行わない)
+    public ErrorKinds employeePasswordFormatCheck(Employee employee) {
+        
         // 従業員パスワードの半角英数字チェック処理
         if (isHalfSizeCheckError(employee)) {
             return ErrorKinds.HALFSIZE_ERROR;
@@ -180,8 +220,6 @@ public class EmployeeService {
             return ErrorKinds.RANGECHECK_ERROR;
         }
         
-        employee.setPassword(passwordEncoder.encode(employee.getPassword()));
-
         return ErrorKinds.CHECK_OK;
     }
 
@@ -0,0 +1,64 @@
+package com.techacademy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.constants.ErrorMessage;
+
+import lombok.Getter;
+
+// 一括登録の結果
+@Getter
+public class ImportResult {
+
+    // 保持するエラーの上限 (超えた分は件数のみ数える)
+    private static final int MAX_ERRORS = 1000;
+
+    // 読み込んだ行数 (見出し行を除く)
+    private int rowCount;
+
+    // 登録した件数
+    private int importedCount;
+
+    // 登録できなかった項目の件数
+    private int errorCount;
+
+    // 登録できなかった行と理由
+    private final List<ImportRowError> errors = new ArrayList<>();
+
+    // 混雑のためパスワードをハッシュ化できず、登録しなかった件数と行 (入力の誤りではないため、そのまま再度登録できる)
+    private int busyCount;
+    private final List<Integer> busyRows = new ArrayList<>();
+
+    // 保持しきれなかったエラーがあるか
+    public boolean isErrorsTruncated() {
+        return errorCount > errors.size();
+    }
+
+    void addRow() {
+        rowCount++;
+    }
+
+    void addImported(int count) {
+        importedCount += count;
+    }
+
+    void addBusy(int row) {
+        busyCount++;
+        if (busyRows.size() < MAX_ERRORS) {
+            busyRows.add(row);
+        }
+    }
+
+    void addError(int row, String column, ErrorKinds errorKinds) {
+        addError(row, column, ErrorMessage.getErrorValue(errorKinds));
+    }
+
+    void addError(int row, String column, String message) {
+        errorCount++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new ImportRowError(row, column, message));
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.techacademy.service;
+
+// 一括登録で登録できなかった行 (行番号は見出し行を1とする。項目を特定できない場合はcolumnがnull)
+public record ImportRowError(int row, String column, String message) {
+}
@@ -0,0 +1,74 @@
+package com.techacademy.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import com.techacademy.repository.ReportListItem;
+
+// 日報一覧をチャンク単位で読み込みながら1件ずつ返却するIterable
+/*    前のチャンクの最後の (日付, ID) をカーソルとして次のチャンクを読み込むため、保持するのは1チャンク分のみ
+ *    テンプレートの th:each が行を出力しながら読み進めるため、件数によらず最初の行から順に応答へ書き出される
+ *    読み込みは反復中に行われる (1回のみ反復可)    */
+public class ReportChunks implements Iterable<ReportListItem> {
+
+    private final Function<ReportCursor, List<ReportListItem>> loader;
+    private final int chunkSize;
+    private final Runnable afterChunk;
+
+    private boolean iterated;
+    private long count;
+
+    // loader: カーソルより後ろの最大chunkSize件を返却する (先頭のチャンクのカーソルはnull)
+    // afterChunk: チャンクを出力し終えて次のチャンクを読み込む前に呼ばれる (応答のflush用)
+    public ReportChunks(Function<ReportCursor, List<ReportListItem>> loader, int chunkSize, Runnable afterChunk) {
+        this.loader = loader;
+        this.chunkSize = chunkSize;
+        this.afterChunk = afterChunk;
+    }
+
+    @Override
+    public Iterator<ReportListItem> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("ReportChunks can only be iterated once");
+        }
+        iterated = true;
+
+        return new Iterator<>() {
+
+            private List<ReportListItem> chunk = loader.apply(null);
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index < chunk.size()) {
+                    return true;
+                }
+                // 最後のチャンクが上限未満の場合は次のチャンクはない
+                if (chunk.size() < chunkSize) {
+                    return false;
+                }
+                afterChunk.run();
+                ReportListItem last = chunk.get(chunk.size() - 1);
+                chunk = loader.apply(new ReportCursor(last.getReportDate(), last.getId()));
+                index = 0;
+                return !chunk.isEmpty();
+            }
+
+            @Override
+            public ReportListItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                count++;
+                return chunk.get(index++);
+            }
+        };
+    }
+
+    // 返却した件数 (反復し終えた後に参照すること)
+    public long getCount() {
+        return count;
+    }
+}
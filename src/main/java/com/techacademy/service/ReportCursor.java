@@ -0,0 +1,34 @@
+package com.techacademy.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// 日報一覧のページ位置 (日付, ID) を表すカーソル
+public record ReportCursor(LocalDate reportDate, Long id) {
+
+    private static final String SEPARATOR = "_";
+
+    // URLパラメータ用の文字列から復元 (不正な値の場合はnullを返す)
+    public static ReportCursor parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        int index = value.lastIndexOf(SEPARATOR);
+        if (index < 0) {
+            return null;
+        }
+
+        try {
+            return new ReportCursor(LocalDate.parse(value.substring(0, index)), Long.valueOf(value.substring(index + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // URLパラメータ用の文字列に変換
+    @Override
+    public String toString() {
+        return reportDate + SEPARATOR + id;
+    }
+}
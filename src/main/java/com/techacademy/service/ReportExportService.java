@@ -0,0 +1,164 @@
+package com.techacademy.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techacademy.entity.Report;
+import com.techacademy.repository.ReportRepository;
+
+import jakarta.persistence.EntityManager;
+
+// 日報の出力 (CSV / NDJSON)
+/*    日報を1件ずつ読み込んで書き出し、書き出した日報は永続化コンテキストから切り離すため、件数によらずメモリ使用量は一定    */
+@Service
+public class ReportExportService {
+
+    // 出力形式
+    public enum Format {
+        CSV("text/csv", "csv"), NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        private Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // 書き出した内容をクライアントへ送信する間隔 (件数)
+    private static final int FLUSH_INTERVAL = 1000;
+
+    // 表計算ソフトで数式として解釈される先頭の文字 (CSVインジェクション対策)
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private static final String[] CSV_HEADER = { "id", "report_date", "employee_code", "employee_name", "title",
+            "content", "created_at", "updated_at" };
+
+    private final ReportRepository reportRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ReportExportService(ReportRepository reportRepository, EntityManager entityManager,
+            ObjectMapper objectMapper) {
+        this.reportRepository = reportRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    // 日報の出力 (出力した件数を返す)
+    @Transactional(readOnly = true)
+    public long export(LocalDate fromDate, LocalDate toDate, String employeeCode, Format format,
+            OutputStream outputStream) throws IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        JsonGenerator generator = null;
+        if (format == Format.NDJSON) {
+            // 1行に1件のため、値の区切り(空白)は出力せずに改行を出力する
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(null);
+        }
+
+        if (format == Format.CSV) {
+            // Excelで文字化けしないようにBOMを付ける
+            writer.write('\uFEFF');
+            writeCsvRow(writer, (Object[]) CSV_HEADER);
+        }
+        // ヘッダーのみ先に送信し、ダウンロードを開始させる
+        writer.flush();
+
+        long count = 0;
+        try (Stream<Report> reports = reportRepository.streamForExport(fromDate, toDate, employeeCode)) {
+            Iterator<Report> iterator = reports.iterator();
+            while (iterator.hasNext()) {
+                Report report = iterator.next();
+
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, report.getId(), report.getReportDate(), report.getEmployee().getCode(),
+                            report.getEmployee().getName(), report.getTitle(), report.getContent(),
+                            report.getCreatedAt(), report.getUpdatedAt());
+                } else {
+                    writeJson(generator, report);
+                    generator.writeRaw('\n');
+                }
+
+                // 書き出した日報は保持しない
+                entityManager.detach(report);
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    flush(writer, generator);
+                }
+            }
+        }
+
+        flush(writer, generator);
+        return count;
+    }
+
+    private static void flush(Writer writer, JsonGenerator generator) throws IOException {
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+    }
+
+    private static void writeJson(JsonGenerator generator, Report report) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", report.getId());
+        generator.writeStringField("reportDate", report.getReportDate().toString());
+        generator.writeStringField("employeeCode", report.getEmployee().getCode());
+        generator.writeStringField("employeeName", report.getEmployee().getName());
+        generator.writeStringField("title", report.getTitle());
+        generator.writeStringField("content", report.getContent());
+        generator.writeStringField("createdAt", toString(report.getCreatedAt()));
+        generator.writeStringField("updatedAt", toString(report.getUpdatedAt()));
+        generator.writeEndObject();
+    }
+
+    // CSVの1行 (カンマ・ダブルクォート・改行を含む値はダブルクォートで囲む)
+    /*    入力された文字列が数式の先頭の文字 (=+-@・タブ・CR) で始まる場合は、先頭に'を付けて文字列として扱わせる    */
+    private static void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i] instanceof LocalDateTime dateTime ? toString(dateTime) : String.valueOf(values[i]);
+            if (values[i] instanceof String && !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String toString(LocalDateTime dateTime) {
+        return dateTime == null ? "" : dateTime.toString();
+    }
+}
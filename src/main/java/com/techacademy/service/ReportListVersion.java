@@ -0,0 +1,37 @@
+package com.techacademy.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 日報一覧のバージョン (日報の登録・更新・削除がコミットされるたびに増加)
+/*    日報一覧画面のETagに使用する。プロセス内のみで保持するため、再起動後に同じ値とならないよう起動時刻を付けて返却する
+ *    JPAを経由せずに日報を更新した場合は呼び出し側でincrementAfterCommitを呼ぶこと    */
+@Component
+public class ReportListVersion {
+
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong version = new AtomicLong();
+
+    // 現在のバージョン (起動時刻-連番)
+    public String getVersion() {
+        return epoch + "-" + version.get();
+    }
+
+    // 現在のトランザクションのコミット後にバージョンを進める
+    /*    トランザクション外で呼ばれた場合は即座に進める    */
+    public void incrementAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.techacademy.service;
+
+import java.util.List;
+
+import com.techacademy.repository.ReportListItem;
+
+import lombok.Getter;
+
+// 日報一覧の1ページ分の情報
+@Getter
+public class ReportPage {
+
+    // 表示する日報
+    private final List<ReportListItem> reportList;
+
+    // 前のページのカーソル (前のページがない場合はnull)
+    private final String prevCursor;
+
+    // 次のページのカーソル (次のページがない場合はnull)
+    private final String nextCursor;
+
+    public ReportPage(List<ReportListItem> reportList, ReportCursor prevCursor, ReportCursor nextCursor) {
+        this.reportList = reportList;
+        this.prevCursor = prevCursor != null ? prevCursor.toString() : null;
+        this.nextCursor = nextCursor != null ? nextCursor.toString() : null;
+    }
+}
@@ -2,17 +2,23 @@ package com.techacademy.service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
 import com.techacademy.repository.EmployeeRepository;
+import com.techacademy.repository.ReportListItem;
 import com.techacademy.repository.ReportRepository;
+import com.techacademy.repository.ReportVersionKey;
 
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,17 +26,31 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class ReportService {
 
+    // 日報一覧の1ページあたりの件数
+    public static final int PAGE_SIZE = 20;
+
+    // 日報一覧 (月) で1回に読み込む件数
+    public static final int CHUNK_SIZE = 500;
+
+    private final EmployeeRepository employeeRepository;
     private final ReportRepository reportRepository;
+    private final ReportListVersion reportListVersion;
     
     @Autowired
-    public ReportService(EmployeeRepository employeeRepository, ReportRepository reportRepository) {
+    public ReportService(EmployeeRepository employeeRepository, ReportRepository reportRepository,
+            ReportListVersion reportListVersion) {
+        this.employeeRepository = employeeRepository;
         this.reportRepository = reportRepository;
+        this.reportListVersion = reportListVersion;
     }
     
     // [日報] 新規登録
     @Transactional
     public ErrorKinds save(Report report) {
         
+        // 従業員は参照のみ設定 (従業員名簿の従業員情報は永続化コンテキスト外のため)
+        report.setEmployee(employeeRepository.getReferenceById(report.getEmployeeCode()));
+        
         // 論理削除のデフォルト値を設定
         report.setDeleteFlg(false);
         
@@ -41,11 +61,21 @@ public class ReportService {
         
         // レポートを保存
         reportRepository.save(report);
+        reportListVersion.incrementAfterCommit();
         
         return ErrorKinds.SUCCESS;
         
     }
     
+    // [日報] まとめて新規登録 (1トランザクションで登録し、1回のコミットで確定する)
+    /*    1件でも一意制約違反となった場合は全件ロールバックとなる (DataIntegrityViolationException)    */
+    @Transactional
+    public void saveAll(List<Report> reports) {
+        for (Report report : reports) {
+            save(report);
+        }
+    }
+    
     // [日報] 更新
     @Transactional
     public ErrorKinds update(Report report) {
@@ -66,6 +96,7 @@ public class ReportService {
         
         // 保存
         reportRepository.save(existingReport);
+        reportListVersion.incrementAfterCommit();
 
         return ErrorKinds.SUCCESS;
     }
@@ -80,21 +111,126 @@ public class ReportService {
         
         // 論理削除
         report.setDeleteFlg(true);
+        reportListVersion.incrementAfterCommit();
 
         return ErrorKinds.SUCCESS;
     }
     
-    // 【日報】日報へのアクセス制御
-    public List<Report> findReportsByCurrentUser(Employee currentUser) {
+    // [日報] 従業員の削除時に論理削除した日報を一括で復元 (復元した件数を返す)
+    /*    1回のUPDATE文で更新し、JPAを経由しないため日報一覧のバージョンを進める    */
+    @Transactional
+    public int restoreByEmployee(String employeeCode) {
+        int restored = reportRepository.restoreByEmployeeCode(employeeCode, LocalDateTime.now());
+        reportListVersion.incrementAfterCommit();
+        return restored;
+    }
+
+    // [日報] 従業員の日報を別の従業員へ一括で付け替え (付け替えた件数を返す)
+    /*    1回のUPDATE文で更新し、JPAを経由しないため日報一覧のバージョンを進める (一覧に表示する従業員名が変わる)    */
+    @Transactional
+    public int reassignEmployee(String fromEmployeeCode, String toEmployeeCode) {
+        int reassigned = reportRepository.reassignEmployee(fromEmployeeCode, toEmployeeCode, LocalDateTime.now());
+        reportListVersion.incrementAfterCommit();
+        return reassigned;
+    }
+
+    // 【日報】日報へのアクセス制御 (件数)
+    public long countReportsByCurrentUser(Employee currentUser) {
         if (currentUser.getRole() == Employee.Role.ADMIN) {
-            // 管理者権限の場合、すべての日報を返却
-            return reportRepository.findAll();
+            // 管理者権限の場合、すべての日報の件数を返却
+            return reportRepository.count();
         } else {
-            // 一般権限の場合、自分の日報のみ返却
-            return reportRepository.findByEmployee(currentUser);
+            // 一般権限の場合、自分の日報の件数のみ返却
+            return reportRepository.countByEmployee(currentUser);
         }
     }
 
+    // 【日報】日報へのアクセス制御 (1ページ分)
+    /*    cursorより後ろ (previousがtrueの場合は前) のページを (日付, ID) の降順で返却    */
+    public ReportPage findReportPageByCurrentUser(Employee currentUser, ReportCursor cursor, boolean previous) {
+
+        // 前のページへ戻る場合
+        if (cursor != null && previous) {
+            List<ReportListItem> reports = new ArrayList<>(findPageBefore(currentUser, cursor));
+            boolean hasPrev = reports.size() > PAGE_SIZE;
+            if (hasPrev) {
+                reports = reports.subList(0, PAGE_SIZE);
+            }
+            Collections.reverse(reports);
+
+            // 前のページが存在しない場合は先頭ページを表示
+            if (reports.isEmpty()) {
+                return findReportPageByCurrentUser(currentUser, null, false);
+            }
+
+            return new ReportPage(reports, hasPrev ? toCursor(reports.get(0)) : null, toCursor(reports.get(reports.size() - 1)));
+        }
+
+        // 先頭ページ、または次のページへ進む場合
+        List<ReportListItem> reports = cursor == null ? findFirstPage(currentUser) : findPageAfter(currentUser, cursor);
+        boolean hasNext = reports.size() > PAGE_SIZE;
+        if (hasNext) {
+            reports = reports.subList(0, PAGE_SIZE);
+        }
+
+        ReportCursor prev = cursor != null && !reports.isEmpty() ? toCursor(reports.get(0)) : null;
+        ReportCursor next = hasNext ? toCursor(reports.get(reports.size() - 1)) : null;
+
+        return new ReportPage(reports, prev, next);
+    }
+
+    // 先頭ページの取得 (次ページ有無の判定用に1件多く取得)
+    private List<ReportListItem> findFirstPage(Employee currentUser) {
+        Limit limit = Limit.of(PAGE_SIZE + 1);
+        if (currentUser.getRole() == Employee.Role.ADMIN) {
+            return reportRepository.findFirstPage(limit);
+        } else {
+            return reportRepository.findFirstPageByEmployee(currentUser, limit);
+        }
+    }
+
+    // cursorより後ろのページの取得 (次ページ有無の判定用に1件多く取得)
+    private List<ReportListItem> findPageAfter(Employee currentUser, ReportCursor cursor) {
+        Limit limit = Limit.of(PAGE_SIZE + 1);
+        if (currentUser.getRole() == Employee.Role.ADMIN) {
+            return reportRepository.findPageAfter(cursor.reportDate(), cursor.id(), limit);
+        } else {
+            return reportRepository.findPageAfterByEmployee(currentUser, cursor.reportDate(), cursor.id(), limit);
+        }
+    }
+
+    // cursorより前のページの取得 (前ページ有無の判定用に1件多く取得)
+    private List<ReportListItem> findPageBefore(Employee currentUser, ReportCursor cursor) {
+        Limit limit = Limit.of(PAGE_SIZE + 1);
+        if (currentUser.getRole() == Employee.Role.ADMIN) {
+            return reportRepository.findPageBefore(cursor.reportDate(), cursor.id(), limit);
+        } else {
+            return reportRepository.findPageBeforeByEmployee(currentUser, cursor.reportDate(), cursor.id(), limit);
+        }
+    }
+
+    // 【日報】日報へのアクセス制御 (1か月分をチャンク単位で読み込み)
+    /*    (日付, ID) の降順。返却時点ではSQLを発行せず、反復しながらCHUNK_SIZE件ずつ読み込む    */
+    public ReportChunks findMonthlyReportsByCurrentUser(Employee currentUser, YearMonth month, Runnable afterChunk) {
+        LocalDate fromDate = month.atDay(1);
+        LocalDate toDate = month.atEndOfMonth();
+        Limit limit = Limit.of(CHUNK_SIZE);
+
+        return new ReportChunks(cursor -> {
+            LocalDate reportDate = cursor == null ? toDate.plusDays(1) : cursor.reportDate();
+            Long id = cursor == null ? Long.MAX_VALUE : cursor.id();
+            if (currentUser.getRole() == Employee.Role.ADMIN) {
+                return reportRepository.findChunkBetween(fromDate, toDate, reportDate, id, limit);
+            } else {
+                return reportRepository.findChunkBetweenByEmployee(currentUser, fromDate, toDate, reportDate, id, limit);
+            }
+        }, CHUNK_SIZE, afterChunk);
+    }
+
+    private ReportCursor toCursor(ReportListItem report) {
+        return new ReportCursor(report.getReportDate(), report.getId());
+    }
+
     // [日報] 1件を検索
     public Report findByReportId(Long id) {
         
@@ -107,22 +243,19 @@ public class ReportService {
         return report;
     }
 
-    // employee_codeを取得
+    // [日報] 従業員情報と合わせて1件を検索 (取得できなかった場合はnullを返す)
+    public Report findReportWithEmployee(Long id) {
+        return reportRepository.findWithEmployeeById(id).orElse(null);
+    }
+
+    // [日報] 所有者の社員番号と更新日時を取得 (取得できなかった場合はnullを返す)
+    public ReportVersionKey findReportVersionKey(Long id) {
+        return reportRepository.findVersionKeyById(id).orElse(null);
+    }
+
+    // employee_codeを取得 (取得できなかった場合はnullを返す)
     public String getEmployeeCode(Long id) {
-        
-        // findByIdで検索
-        Optional<Report> option = reportRepository.findById(id);
-        
-        // 取得できなかった場合はnullを返す
-        Report report = option.orElse(null);
-        
-        // Reportがnullでないことを確認し、関連するEmployeeオブジェクトからemployee_codeを取得する
-        if (report != null && report.getEmployee() != null) {
-            return report.getEmployee().getCode();
-        } else {
-            return null;
-        }
-        
+        return reportRepository.findEmployeeCodeById(id).orElse(null);
     }
 
     // タイトル：100文字以下
@@ -146,16 +279,15 @@ public class ReportService {
     }
     
     // 同日の日報重複チェック (更新時に自身を除外)
+    /*    同時登録による重複はDBの一意制約で防ぐ (DataIntegrityViolationExceptionとなる)    */
     public boolean isReportDateExists(LocalDate reportDate, Employee employee, Long excludedReportId) {
-        List<Report> existingReports;
         if (excludedReportId == null) {
             // 新規登録時のチェック
-            existingReports = reportRepository.findByReportDateAndEmployeeAndDeleteFlgIsFalse(reportDate, employee);
+            return reportRepository.existsByReportDateAndEmployeeAndDeleteFlgIsFalse(reportDate, employee);
         } else {
             // 更新時のチェック（自身を除外）
-            existingReports = reportRepository.findByReportDateAndEmployeeAndDeleteFlgIsFalseAndIdNot(reportDate, employee, excludedReportId);
+            return reportRepository.existsByReportDateAndEmployeeAndDeleteFlgIsFalseAndIdNot(reportDate, employee, excludedReportId);
         }
-        return !existingReports.isEmpty();
     }
 
 }
@@ -0,0 +1,254 @@
+package com.techacademy.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.entity.Report;
+import com.techacademy.repository.ReportDateKey;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 日報の新規登録 (グループコミット)
+/*    終業時刻前後は提出が短時間に集中するため、有効な場合は同時に提出された日報を最大max-batch-size件・max-delay-msミリ秒まで集めて
+ *    1トランザクション (1回のコミット) で登録する。提出元にはコミット後に結果 (SUCCESS / DATECHECK_ERROR) を返す
+ *    一意制約違反でまとめての登録に失敗した場合は、その回の日報のみ1件ずつ登録し直す
+ *    無効の場合、または待ち行列が満杯の場合は提出元のスレッドで1件ずつ登録する
+ *    提出元はsubmit-timeout-msミリ秒まで結果を待ち、待ちきれない場合はREPORT_SUBMIT_BUSY_ERRORを返す    */
+@Slf4j
+@Component
+public class ReportSubmissionBatcher implements DisposableBean {
+
+    // 待ち行列が空の場合に停止要求を確認する間隔
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final ReportService reportService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long submitTimeoutMillis;
+    private final BlockingQueue<Submission> queue;
+    private final Thread flusher;
+    private volatile boolean running;
+
+    // 統計情報
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong batchedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+
+    public ReportSubmissionBatcher(ReportService reportService,
+            @Value("${app.report.group-commit.enabled:false}") boolean enabled,
+            @Value("${app.report.group-commit.max-batch-size:50}") int maxBatchSize,
+            @Value("${app.report.group-commit.max-delay-ms:5}") long maxDelayMillis,
+            @Value("${app.report.group-commit.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.report.group-commit.submit-timeout-ms:10000}") long submitTimeoutMillis) {
+        this.reportService = reportService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.submitTimeoutMillis = submitTimeoutMillis;
+
+        if (enabled) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.running = true;
+            this.flusher = new Thread(this::run, "report-group-commit");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        } else {
+            this.queue = null;
+            this.flusher = null;
+        }
+    }
+
+    // [日報] 新規登録 (コミット後に結果を返す。同日の日報が先に登録された場合はDATECHECK_ERROR)
+    public ErrorKinds submit(Report report) {
+
+        if (!enabled || !running) {
+            return saveOne(report);
+        }
+
+        // 待ち行列が満杯の場合は提出元のスレッドで登録する
+        Submission submission = new Submission(report, new CompletableFuture<>());
+        if (!queue.offer(submission)) {
+            return saveOne(report);
+        }
+
+        // 追加と同時に停止した場合は取り出されない可能性があるため、残っていれば提出元のスレッドで登録する
+        if (!running && queue.remove(submission)) {
+            return saveOne(report);
+        }
+
+        try {
+            return submission.result().get(submitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // 待ち行列に残っている場合は取り消す (取り出し済みの場合は登録されるかは分からない)
+            boolean cancelled = queue.remove(submission);
+            log.warn("Report submission timed out after {} ms ({})", submitTimeoutMillis,
+                    cancelled ? "cancelled" : "still being committed");
+            return ErrorKinds.REPORT_SUBMIT_BUSY_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.remove(submission);
+            return ErrorKinds.REPORT_SUBMIT_BUSY_ERROR;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // コミットした回数
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    // まとめて登録した日報の件数
+    public long getBatchedCount() {
+        return batchedCount.get();
+    }
+
+    // まとめての登録に失敗し、1件ずつ登録し直した回数
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    public int getQueueSize() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    // 停止 (待ち行列に残っている日報は登録してから停止する)
+    @Override
+    public void destroy() throws InterruptedException {
+        if (flusher != null) {
+            running = false;
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private void run() {
+        List<Submission> batch = new ArrayList<>(maxBatchSize);
+
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    try {
+                        collect(batch);
+                    } catch (InterruptedException e) {
+                        // 停止要求 (集めた分は登録し、待ち行列に残っている分はループで登録する)
+                        running = false;
+                    }
+                    if (!batch.isEmpty()) {
+                        flush(batch);
+                    }
+                } catch (Throwable e) {
+                    // Errorを含め、失敗した回の提出元には例外を返してループを続ける (完了済みの提出には影響しない)
+                    log.error("Group commit of {} reports failed", batch.size(), e);
+                    batch.forEach(submission -> submission.result().completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            // 以降の提出は提出元のスレッドで登録する
+            running = false;
+        }
+    }
+
+    // 1回分の日報を集める (待ち行列が空の場合は何もせずに戻る)
+    private void collect(List<Submission> batch) throws InterruptedException {
+        Submission first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        // 前回のコミット中に届いた分をまとめ、足りない場合は上限の時間まで待つ
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            Submission next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    // 1回分の登録
+    private void flush(List<Submission> batch) {
+
+        // 同じ従業員・同じ日付の日報は先に提出された方のみ登録する
+        Set<ReportDateKey> keys = new HashSet<>();
+        List<Submission> submissions = new ArrayList<>(batch.size());
+        for (Submission submission : batch) {
+            Report report = submission.report();
+            if (keys.add(new ReportDateKey(report.getEmployeeCode(), report.getReportDate()))) {
+                submissions.add(submission);
+            } else {
+                submission.result().complete(ErrorKinds.DATECHECK_ERROR);
+            }
+        }
+        if (submissions.isEmpty()) {
+            return;
+        }
+
+        try {
+            reportService.saveAll(submissions.stream().map(Submission::report).toList());
+            batchCount.incrementAndGet();
+            batchedCount.addAndGet(submissions.size());
+            submissions.forEach(submission -> submission.result().complete(ErrorKinds.SUCCESS));
+            return;
+        } catch (DataIntegrityViolationException e) {
+            // 確認後に同日の日報が登録されていた場合
+            log.info("Group commit of {} reports hit a unique constraint, retrying one by one", submissions.size());
+            retryCount.incrementAndGet();
+        }
+
+        for (Submission submission : submissions) {
+            try {
+                // ロールバックした回に払い出したIDは使わない
+                submission.report().setId(null);
+                submission.result().complete(saveOne(submission.report()));
+            } catch (RuntimeException e) {
+                submission.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    // 1件ずつ登録 (同時登録で同日の日報が先に登録された場合は一意制約違反となる)
+    private ErrorKinds saveOne(Report report) {
+        try {
+            return reportService.save(report);
+        } catch (DataIntegrityViolationException e) {
+            return ErrorKinds.DATECHECK_ERROR;
+        }
+    }
+
+    // 提出された日報と結果
+    private record Submission(Report report, CompletableFuture<ErrorKinds> result) {
+    }
+}
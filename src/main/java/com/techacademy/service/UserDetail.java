@@ -1,31 +1,46 @@
 package com.techacademy.service;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.techacademy.entity.Employee;
 
-public class UserDetail implements UserDetails {
+// ログイン中の従業員情報
+/*    セッションに保持されるため、JPAのEmployeeではなく社員番号・名前・権限のみを保持する    */
+public class UserDetail implements UserDetails, CredentialsContainer {
     private static final long serialVersionUID = 1L;
 
-    private final Employee employee;
+    private final String code;
+    private final String name;
+    private final Employee.Role role;
     private final List<SimpleGrantedAuthority> authorities;
 
+    // パスワード (認証後に破棄される)
+    private String password;
+
     public UserDetail(Employee employee) {
-        this.employee = employee;
+        this.code = employee.getCode();
+        this.name = employee.getName();
+        this.role = employee.getRole();
+        this.password = employee.getPassword();
+        this.authorities = List.of(new SimpleGrantedAuthority(employee.getRole().toString()));
+    }
+
+    public String getCode() {
+        return code;
+    }
 
-        List<SimpleGrantedAuthority> authorities = new ArrayList<SimpleGrantedAuthority>();
-        authorities.add(new SimpleGrantedAuthority(employee.getRole().toString()));
-        this.authorities = authorities;
+    public String getName() {
+        return name;
     }
 
-    public Employee getEmployee() {
-        return employee;
+    public Employee.Role getRole() {
+        return role;
     }
 
     @Override
@@ -35,12 +50,18 @@ public class UserDetail implements UserDetails {
 
     @Override
     public String getPassword() {
-        return employee.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return employee.getCode();
+        return code;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        // 認証後はパスワードを保持しない
+        this.password = null;
     }
 
     @Override
@@ -66,4 +87,4 @@ public class UserDetail implements UserDetails {
         // 従業員が有効であればtrueを返す
         return true;
     }
-}
\ No newline at end of file
+}
@@ -4,29 +4,50 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.techacademy.entity.Employee;
 import com.techacademy.repository.EmployeeRepository;
 
 @Service
-public class UserDetailService implements UserDetailsService {
+public class UserDetailService implements UserDetailsService, UserDetailsPasswordService {
     private final EmployeeRepository employeeRepository;
+    private final EmployeeDirectory employeeDirectory;
 
     @Autowired
-    public UserDetailService(EmployeeRepository repository) {
+    public UserDetailService(EmployeeRepository repository, EmployeeDirectory employeeDirectory) {
         this.employeeRepository = repository;
+        this.employeeDirectory = employeeDirectory;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<Employee> employee = employeeRepository.findById(username);
+        Optional<Employee> employee = employeeRepository.findLiveById(username);
 
         if (employee.isEmpty()) {
             throw new UsernameNotFoundException("Exception:Username Not Found");
         }
         return new UserDetail(employee.get());
     }
-}
\ No newline at end of file
+
+    // ログイン成功時、設定より低いコストでハッシュ化されたパスワードを再ハッシュ化した値で更新
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Optional<Employee> employee = employeeRepository.findLiveById(user.getUsername());
+
+        if (employee.isEmpty()) {
+            return user;
+        }
+
+        employee.get().setPassword(newPassword);
+        employeeRepository.save(employee.get());
+        employeeDirectory.reloadAfterCommit();
+
+        return new UserDetail(employee.get());
+    }
+}
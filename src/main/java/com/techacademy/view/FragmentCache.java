@@ -0,0 +1,150 @@
+package com.techacademy.view;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.servlet.ServletContext;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+// 描画済みのテンプレートの断片 (HTML) のキャッシュ
+/*    テンプレートからは th:utext="${@fragmentCache.render('テンプレート', '断片', バージョン, {変数名: 値})}" で使用する
+ *    テンプレート・断片・バージョンが同じ場合は描画せずに前回のHTMLを返却する。バージョンには断片の内容を決める値
+ *    (日報のIDと更新日時、権限など) を指定すること。保持しているHTMLの合計の文字数が上限を超えた場合は
+ *    最も長く参照されていないものから破棄する。1件で上限 (max-entry-chars) を超えるHTMLは保持しない (日報の内容は長さの制限がないため)
+ *    CSRFトークンを含むフォームなど、利用者ごとに異なる内容は断片に含めないこと
+ *    テンプレートのキャッシュが無効の場合 (開発時) は毎回描画する    */
+@Component("fragmentCache")
+@ConditionalOnWebApplication
+public class FragmentCache {
+
+    private final ITemplateEngine templateEngine;
+    private final JakartaServletWebApplication application;
+    private final boolean enabled;
+    private final long maxChars;
+    private final int maxEntryChars;
+    private final Map<String, String> entries = new LinkedHashMap<>(16, 0.75f, true); // 参照順 (LRU)
+    private long totalChars;
+
+    // 統計情報
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+
+    public FragmentCache(ITemplateEngine templateEngine, ServletContext servletContext,
+            @Value("${spring.thymeleaf.cache:true}") boolean templateCacheEnabled,
+            @Value("${app.fragment-cache.max-chars:5000000}") long maxChars,
+            @Value("${app.fragment-cache.max-entry-chars:50000}") int maxEntryChars) {
+        this.templateEngine = templateEngine;
+        this.application = JakartaServletWebApplication.buildApplication(servletContext);
+        this.enabled = templateCacheEnabled && maxChars > 0;
+        this.maxChars = maxChars;
+        this.maxEntryChars = (int) Math.min(maxEntryChars, maxChars);
+    }
+
+    // 断片を描画したHTMLを返却 (キャッシュにある場合はそのまま返却)
+    public String render(String template, String fragment, Object version, Map<String, Object> variables) {
+
+        if (!enabled) {
+            return process(template, fragment, variables);
+        }
+
+        String key = template + "::" + fragment + "::" + version;
+        synchronized (entries) {
+            String html = entries.get(key);
+            if (html != null) {
+                hits.increment();
+                return html;
+            }
+        }
+
+        // 描画は同期の外で行う (同じ断片を同時に描画した場合は後から描画した方で上書きする)
+        misses.increment();
+        String html = process(template, fragment, variables);
+        if (html.length() > maxEntryChars) {
+            oversized.increment();
+            return html;
+        }
+        synchronized (entries) {
+            String previous = entries.put(key, html);
+            totalChars += html.length() - (previous != null ? previous.length() : 0);
+            evictOverLimit();
+        }
+        return html;
+    }
+
+    // 合計の文字数が上限以下となるまで、最も長く参照されていないものから破棄する (entriesの同期内で呼ぶこと)
+    private void evictOverLimit() {
+        Iterator<String> iterator = entries.values().iterator();
+        while (totalChars > maxChars && iterator.hasNext()) {
+            totalChars -= iterator.next().length();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    // 現在のリクエストで断片を描画する (リンクのURLは画面と同じく@{}の規則で出力される)
+    private String process(String template, String fragment, Map<String, Object> variables) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        WebContext context = new WebContext(application.buildExchange(attributes.getRequest(), attributes.getResponse()),
+                LocaleContextHolder.getLocale(), variables != null ? variables : Map.of());
+        return templateEngine.process(template, Set.of(fragment), context);
+    }
+
+    // 全件を破棄
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            totalChars = 0;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // キャッシュから返却した回数
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    // 描画した回数
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // 文字数の上限により破棄した回数
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // 1件の文字数の上限を超えたため保持しなかった回数
+    public long getOversizedCount() {
+        return oversized.sum();
+    }
+
+    // 保持しているHTMLの合計の文字数
+    public long getTotalChars() {
+        synchronized (entries) {
+            return totalChars;
+        }
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
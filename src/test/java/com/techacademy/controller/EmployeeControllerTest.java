@@ -3,17 +3,22 @@ package com.techacademy.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +26,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,8 +36,15 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.constants.ErrorMessage;
+import com.techacademy.metrics.SqlStatementBudgetFilter;
+
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Employee.Role;
+import com.techacademy.repository.EmployeeRepository;
+import com.techacademy.service.ImportResult;
+import com.techacademy.service.EmployeeService;
 import com.techacademy.service.UserDetail;
 
 @SpringBootTest
@@ -48,7 +63,12 @@ class EmployeeControllerTest {
     @BeforeEach
     void beforeEach() {
         // Spring Securityを有効にする
-        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        // 発行したSQLの件数を確認するためのフィルタを追加する
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity())
+                .addFilters(webApplicationContext.getBean(SqlStatementBudgetFilter.class)).build();
+
+        // 従業員一覧を読み込み済みの状態にする (一覧・詳細画面はSQLを発行しないことを確認するため)
+        webApplicationContext.getBean(EmployeeService.class).findAll();
     }
 
     // 従業員一覧画面
@@ -62,6 +82,7 @@ class EmployeeControllerTest {
                 .andExpect(model().attributeExists("employeeList")) // Modelの内容を確認
                 .andExpect(model().hasNoErrors()) // Modelのエラー有無の確認
                 .andExpect(view().name("employees/list")) // viewの確認
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 0)) // SQLの発行件数を確認
                 .andReturn(); // 内容の取得
 
         @SuppressWarnings("unchecked")
@@ -93,6 +114,7 @@ class EmployeeControllerTest {
                 .andExpect(model().attributeExists("employee")) // Modelの内容を確認
                 .andExpect(model().hasNoErrors()) // Modelのエラー有無の確認
                 .andExpect(view().name("employees/detail")) // viewの確認
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 0)) // SQLの発行件数を確認
                 .andReturn(); // 内容の取得
 
         Employee employee = (Employee) result.getModelAndView().getModel().get("employee");
@@ -101,6 +123,26 @@ class EmployeeControllerTest {
         assertEquals(employee.getRole(), Role.ADMIN);
     }
 
+    // 従業員詳細画面 (変更されていない場合は304)
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void testDetailNotModified() throws Exception {
+
+        MockHttpSession session = new MockHttpSession();
+        MvcResult result = mockMvc.perform(get("/employees/1/").session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        long lastModified = result.getResponse().getDateHeader(HttpHeaders.LAST_MODIFIED);
+
+        // ETag・Last-Modifiedのいずれでも304となる
+        mockMvc.perform(get("/employees/1/").session(session).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/employees/1/").session(session).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
     // 従業員新規登録画面
     @Test
     @WithMockUser(authorities = "ADMIN")
@@ -110,7 +152,8 @@ class EmployeeControllerTest {
                 .andExpect(status().isOk()) // ステータスを確認
                 .andExpect(model().attributeExists("employee")) // Modelの内容を確認
                 .andExpect(model().hasNoErrors()) // Modelのエラー有無の確認
-                .andExpect(view().name("employees/new")); // viewの確認
+                .andExpect(view().name("employees/new")) // viewの確認
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 0)); // SQLの発行件数を確認
 
     }
 
@@ -270,6 +313,65 @@ class EmployeeControllerTest {
 
     }
 
+    // 従業員一括登録処理 (誤りのある行のみ登録しない)
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    @Transactional
+    void testImport() throws Exception {
+
+        String csv = "code,name,role,password\r\n"
+                + "3,テスト花子,GENERAL,abcd1234\r\n" // 正常
+                + "4,テスト次郎,GENERAL,abc\r\n" // パスワードの桁数エラー
+                + "1,テスト三郎,ADMIN,abcd1234\r\n" // 社員番号の重複エラー
+                + "5,\"テスト,四郎\",BOSS,abcd1234\r\n"; // 権限の形式エラー
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        // HTTPリクエストに対するレスポンスの検証
+        MvcResult result = mockMvc.perform(multipart("/employees/import").file(file).with(csrf())) // URLにアクセス
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(view().name("employees/import")) // viewの確認
+                .andReturn(); // 内容の取得
+
+        ImportResult importResult = (ImportResult) result.getModelAndView().getModel().get("importResult");
+        assertEquals(importResult.getRowCount(), 4);
+        assertEquals(importResult.getImportedCount(), 1);
+        assertEquals(importResult.getErrors().size(), 3);
+        assertEquals(importResult.getErrors().get(0).row(), 3);
+        assertEquals(importResult.getErrors().get(0).column(), "password");
+        assertEquals(importResult.getErrors().get(1).column(), "code");
+        assertEquals(importResult.getErrors().get(2).column(), "role");
+
+        // 正常な行のみ登録されていること
+        EmployeeRepository employeeRepository = webApplicationContext.getBean(EmployeeRepository.class);
+        assertEquals(employeeRepository.findById("3").get().getName(), "テスト花子");
+        assertEquals(employeeRepository.findById("4").isPresent(), false);
+    }
+
+    // 従業員一括登録処理 (閉じていないダブルクォートで値が長すぎる行以降は読み込まない)
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    @Transactional
+    void testImportFieldTooLong() throws Exception {
+
+        String csv = "code,name,role,password\r\n"
+                + "6,テスト五郎,GENERAL,abcd1234\r\n" // 正常
+                + "7,\"テスト" + "六".repeat(20000) + "\r\n" // ダブルクォートの閉じ忘れ
+                + "8,テスト七郎,GENERAL,abcd1234\r\n";
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        MvcResult result = mockMvc.perform(multipart("/employees/import").file(file).with(csrf()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ImportResult importResult = (ImportResult) result.getModelAndView().getModel().get("importResult");
+        assertEquals(importResult.getRowCount(), 2);
+        assertEquals(importResult.getImportedCount(), 1);
+        assertEquals(importResult.getBusyCount(), 0);
+        assertEquals(importResult.getErrors().size(), 1);
+        assertEquals(importResult.getErrors().get(0).row(), 3);
+        assertEquals(importResult.getErrors().get(0).message(), ErrorMessage.getErrorValue(ErrorKinds.IMPORT_FIELD_LENGTH_ERROR));
+    }
+
     // 従業員削除処理
     // テストケース1 正常終了
     @Test
@@ -290,9 +392,13 @@ class EmployeeControllerTest {
 
         UserDetail userDetail = new UserDetail(employee);
 
+        // 第2レベルキャッシュに残っている場合は従業員の取得のSQLが発行されないため破棄しておく
+        webApplicationContext.getBean(EntityManagerFactory.class).getCache().evictAll();
+
         // HTTPリクエストに対するレスポンスの検証
         mockMvc.perform((post("/employees/2/delete")).with(user(userDetail)).with(csrf()))
-                .andExpect(redirectedUrl("/employees"));
+                .andExpect(redirectedUrl("/employees"))
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 3)); // SQLの発行件数を確認
 
     }
 
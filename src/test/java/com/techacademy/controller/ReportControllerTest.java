@@ -0,0 +1,362 @@
+package com.techacademy.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.metrics.SqlStatementBudgetFilter;
+import com.techacademy.repository.ReportRepository;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.ImportResult;
+import com.techacademy.service.ReportListVersion;
+import com.techacademy.view.FragmentCache;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(SpringExtension.class)
+class ReportControllerTest {
+
+    private MockMvc mockMvc;
+
+    private final WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ReportListVersion reportListVersion;
+
+    ReportControllerTest(WebApplicationContext context) {
+        this.webApplicationContext = context;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        // Spring Securityを有効にする
+        // 発行したSQLの件数を確認するためのフィルタを追加する
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity())
+                .addFilters(webApplicationContext.getBean(SqlStatementBudgetFilter.class)).build();
+
+        // 従業員名簿を読み込み済みにしておく
+        employeeService.findAll();
+    }
+
+    // 日報詳細画面
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testDetail() throws Exception {
+
+        // HTTPリクエストに対するレスポンスの検証
+        MvcResult result = mockMvc.perform(get("/reports/1/")) // URLにアクセス
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(model().attributeExists("report", "employee")) // Modelの内容を確認
+                .andExpect(view().name("reports/detail")) // viewの確認
+                // 更新日時の確認 (条件付きGET) と、日報・従業員情報の取得 (1回のSQL) の2回
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 2))
+                .andReturn(); // 内容の取得
+
+        Report report = (Report) result.getModelAndView().getModel().get("report");
+        Employee employee = (Employee) result.getModelAndView().getModel().get("employee");
+        assertEquals(report.getId(), 1L);
+        assertEquals(employee.getCode(), "1");
+        assertEquals(employee.getName(), "煌木　太郎");
+    }
+
+    // 日報詳細画面 (変更されていない場合は304)
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testDetailNotModified() throws Exception {
+
+        MockHttpSession session = new MockHttpSession();
+        MvcResult result = mockMvc.perform(get("/reports/1/").session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.startsWith("W/\""));
+
+        // 同じセッションでETagを指定した場合は本文を取得せずに304を返す
+        mockMvc.perform(get("/reports/1/").session(session).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""))
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 1));
+
+        // 別のセッション (CSRFトークンが異なる) の場合は304としない
+        mockMvc.perform(get("/reports/1/").session(new MockHttpSession()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    // 日報一覧画面 (日報が変更されるまでは304)
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testListNotModified() throws Exception {
+
+        MockHttpSession session = new MockHttpSession();
+        String etag = mockMvc.perform(get("/reports").session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/reports").session(session).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // 日報が登録・更新・削除された場合は描画し直す
+        reportListVersion.incrementAfterCommit();
+        mockMvc.perform(get("/reports").session(session).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(view().name("reports/list"));
+    }
+
+    // 日報一覧画面 (1か月分を全件表示)
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testListMonth() throws Exception {
+
+        ReportRepository reportRepository = webApplicationContext.getBean(ReportRepository.class);
+        LocalDate reportDate = reportRepository.findById(1L).get().getReportDate();
+        YearMonth month = YearMonth.from(reportDate);
+        int expected = reportRepository.findChunkBetween(month.atDay(1), month.atEndOfMonth(),
+                month.atEndOfMonth().plusDays(1), Long.MAX_VALUE, Limit.unlimited()).size();
+
+        MvcResult result = mockMvc.perform(get("/reports").param("month", month.toString()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("reports/list"))
+                .andExpect(model().attributeDoesNotExist("reportPage"))
+                .andReturn();
+
+        // 描画し終えた時点で全件を出力している
+        String html = result.getResponse().getContentAsString();
+        assertEquals(html.split("class=\"btn btn-primary\">詳細</a>", -1).length - 1, expected);
+        assertTrue(html.contains("（ " + expected + "件 ）"));
+        assertTrue(html.contains("month=" + month.minusMonths(1)));
+
+        // 不正な月の指定は400
+        mockMvc.perform(get("/reports").param("month", "2024-13")).andExpect(status().isBadRequest());
+    }
+
+    // 日報詳細画面 (描画済みの断片を使い回し、CSRFトークンは毎回描画する)
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testDetailFragmentCache() throws Exception {
+
+        FragmentCache fragmentCache = webApplicationContext.getBean(FragmentCache.class);
+        mockMvc.perform(get("/reports/1/")).andExpect(status().isOk());
+        long hits = fragmentCache.getHitCount();
+        long misses = fragmentCache.getMissCount();
+
+        String first = mockMvc.perform(get("/reports/1/").session(new MockHttpSession())).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String second = mockMvc.perform(get("/reports/1/").session(new MockHttpSession())).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // ヘッダ・メニュー・日報の内容の3つの断片はいずれもキャッシュから返却される
+        assertEquals(fragmentCache.getHitCount() - hits, 6);
+        assertEquals(fragmentCache.getMissCount(), misses);
+        assertTrue(first.contains("煌木　太郎"));
+
+        // ログアウト・削除のフォームのCSRFトークンはセッションごとに異なる
+        Pattern csrf = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+        Matcher firstToken = csrf.matcher(first);
+        Matcher secondToken = csrf.matcher(second);
+        assertTrue(firstToken.find() && secondToken.find());
+        assertNotEquals(firstToken.group(1), secondToken.group(1));
+    }
+
+    // 日報詳細画面 (1件の文字数の上限を超える断片は保持せずに毎回描画する)
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testDetailFragmentCacheOversized() throws Exception {
+
+        FragmentCache fragmentCache = webApplicationContext.getBean(FragmentCache.class);
+        JdbcTemplate jdbcTemplate = webApplicationContext.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO reports(id,report_date,title,content,employee_code,delete_flg,created_at,updated_at)"
+                + " VALUES (900002,'2000-01-02','長い内容のタイトル',?,'1',0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP)",
+                "長".repeat(60000));
+        try {
+            long oversized = fragmentCache.getOversizedCount();
+            long chars = fragmentCache.getTotalChars();
+
+            mockMvc.perform(get("/reports/900002/")).andExpect(status().isOk());
+            mockMvc.perform(get("/reports/900002/").session(new MockHttpSession())).andExpect(status().isOk());
+
+            // 日報の内容の断片は2回とも保持されず、保持している文字数も増えない
+            assertEquals(fragmentCache.getOversizedCount() - oversized, 2);
+            assertTrue(fragmentCache.getTotalChars() - chars < 60000);
+        } finally {
+            jdbcTemplate.update("DELETE FROM reports WHERE id = 900002");
+        }
+    }
+
+    // 日報更新画面
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testUpdate() throws Exception {
+
+        // HTTPリクエストに対するレスポンスの検証 (管理者は他の従業員の日報も更新可能)
+        MvcResult result = mockMvc.perform(get("/reports/2/update")) // URLにアクセス
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(model().attributeExists("report", "employee")) // Modelの内容を確認
+                .andExpect(view().name("reports/update")) // viewの確認
+                // 日報と従業員情報は1回のSQLで取得
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 1))
+                .andReturn(); // 内容の取得
+
+        Employee employee = (Employee) result.getModelAndView().getModel().get("employee");
+        assertEquals(employee.getCode(), "2");
+    }
+
+    // 日報詳細画面 (他の従業員の日報)
+    @Test
+    @WithMockUser(username = "2", authorities = "GENERAL")
+    void testDetailForbidden() throws Exception {
+        // HTTPリクエストに対するレスポンスの検証
+        mockMvc.perform(get("/reports/1/")) // URLにアクセス
+                .andExpect(view().name("error")); // viewの確認
+    }
+
+    // 日報出力 (CSV)
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testExport() throws Exception {
+        // 出力は非同期で行われるため、開始を確認してから結果を取得
+        MvcResult result = mockMvc.perform(get("/reports/export").param("employeeCode", "1")) // URLにアクセス
+                .andExpect(request().asyncStarted()) // 非同期処理の開始を確認
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)) // 出力の完了を待つ
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(content().contentType("text/csv;charset=UTF-8")) // 形式を確認
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"reports.csv\""));
+
+        // 非同期処理のタイムアウトは出力のみ長くする (app.report.export.timeout-ms)
+        assertEquals(result.getRequest().getAsyncContext().getTimeout(), 3600000L);
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertTrue(lines[0].startsWith("\uFEFF"));
+        assertEquals(lines.length, 2);
+        assertTrue(lines[1].contains("煌木　太郎の記載、タイトル"));
+    }
+
+    // 日報出力 (CSV。数式として解釈される値)
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    void testExportFormula() throws Exception {
+
+        JdbcTemplate jdbcTemplate = webApplicationContext.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO reports(id,report_date,title,content,employee_code,delete_flg,created_at,updated_at)"
+                + " VALUES (900003,'2000-01-03','=HYPERLINK(\"http://example.com\")','@SUM(A1:A2)','1',0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP)");
+        try {
+            MvcResult result = mockMvc.perform(get("/reports/export").param("from", "2000-01-03").param("to", "2000-01-03"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+            // 先頭に'を付けて出力する (ダブルクォートを含む値はダブルクォートで囲む)
+            String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+            assertEquals(lines.length, 2);
+            assertTrue(lines[1].contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\",'@SUM(A1:A2),"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM reports WHERE id = 900003");
+        }
+    }
+
+    // 日報出力 (一般権限)
+    @Test
+    @WithMockUser(username = "2", authorities = "GENERAL")
+    void testExportForbidden() throws Exception {
+        // HTTPリクエストに対するレスポンスの検証
+        mockMvc.perform(get("/reports/export")) // URLにアクセス
+                .andExpect(status().isForbidden()); // ステータスを確認
+    }
+
+    // 日報一括登録処理 (誤りのある行のみ登録しない)
+    @Test
+    @WithMockUser(username = "1", authorities = "ADMIN")
+    @Transactional
+    void testImport() throws Exception {
+
+        String today = LocalDate.now().toString();
+        String csv = "employee_code,report_date,title,content\r\n"
+                + "2,2020-04-01,一括登録のタイトル,\"1行目\n2行目, \"\"引用\"\"\"\r\n" // 正常 (値の中の改行・カンマ・ダブルクォート)
+                + "2,2020-04-02,タイトル,内容\r\n" // 正常
+                + "2,2020-04-01,タイトル,内容\r\n" // ファイル内の同日の日報
+                + "1," + today + ",タイトル,内容\r\n" // 登録済みの同日の日報
+                + "9,2020-04-03,タイトル,内容\r\n" // 存在しない社員番号
+                + "2,2020/04/04,タイトル,内容\r\n"; // 日付の形式エラー
+        MockMultipartFile file = new MockMultipartFile("file", "reports.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+        ReportRepository reportRepository = webApplicationContext.getBean(ReportRepository.class);
+        long count = reportRepository.count();
+
+        // HTTPリクエストに対するレスポンスの検証
+        MvcResult result = mockMvc.perform(multipart("/reports/import").file(file).with(csrf())) // URLにアクセス
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(view().name("reports/import")) // viewの確認
+                .andReturn(); // 内容の取得
+
+        // 正しい行の日報のみ登録
+        assertEquals(reportRepository.count() - count, 2L);
+
+        ImportResult importResult = (ImportResult) result.getModelAndView().getModel().get("importResult");
+        assertEquals(importResult.getRowCount(), 6);
+        assertEquals(importResult.getImportedCount(), 2);
+        assertEquals(importResult.getErrors().size(), 4);
+        assertEquals(importResult.getErrors().get(0).row(), 4);
+        assertEquals(importResult.getErrors().get(1).column(), "employee_code");
+
+        // 値の中の改行・カンマ・ダブルクォートがそのまま登録されていること
+        Report report = reportRepository.findAll().stream()
+                .filter(r -> "一括登録のタイトル".equals(r.getTitle())).findFirst().get();
+        assertEquals(report.getContent(), "1行目\n2行目, \"引用\"");
+        assertEquals(report.getEmployeeCode(), "2");
+    }
+
+    // 日報一括登録画面 (一般権限)
+    @Test
+    @WithMockUser(username = "2", authorities = "GENERAL")
+    void testImportForbidden() throws Exception {
+        // HTTPリクエストに対するレスポンスの検証
+        mockMvc.perform(get("/reports/import")) // URLにアクセス
+                .andExpect(status().isForbidden()); // ステータスを確認
+    }
+
+}
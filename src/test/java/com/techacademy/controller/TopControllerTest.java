@@ -1,22 +1,44 @@
 package com.techacademy.controller;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.logout;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+
+import com.techacademy.metrics.SqlStatementBudgetFilter;
+import com.techacademy.view.FragmentCache;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -34,7 +56,9 @@ class TopControllerTest {
     @BeforeEach
     void beforeEach() {
         // Spring Securityを有効にする
-        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        // 発行したSQLの件数を確認するためのフィルタを追加する
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity())
+                .addFilters(webApplicationContext.getBean(SqlStatementBudgetFilter.class)).build();
     }
 
     // ログイン処理
@@ -44,8 +68,114 @@ class TopControllerTest {
         // HTTPリクエストに対するレスポンスの検証
         mockMvc.perform(get("/login")) // URLにアクセス
                 .andExpect(status().isOk()) // ステータスを確認
-                .andExpect(view().name("login/login")); // viewの確認
+                .andExpect(view().name("login/login")) // viewの確認
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 0)); // SQLの発行件数を確認
+
+    }
+
+    // トップページ
+    @Test
+    @WithMockUser
+    void testTop() throws Exception {
+        // HTTPリクエストに対するレスポンスの検証
+        mockMvc.perform(get("/")) // URLにアクセス
+                .andExpect(redirectedUrl("/reports")) // リダイレクト先を確認
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENT_COUNT_ATTRIBUTE, 0)); // SQLの発行件数を確認
+    }
+
+    // 静的ファイル (ハッシュ付きのURL・圧縮版・1年間のキャッシュ)
+    @Test
+    void testStaticResources() throws Exception {
+        MockMvc resourceMockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity())
+                .addFilters(new ResourceUrlEncodingFilter()).build();
+
+        // MockMvcではフィルタを指定しない限りURLが変換されないため、他のテストで描画したヘッダの断片を破棄する
+        webApplicationContext.getBean(FragmentCache.class).clear();
+
+        // テンプレートの@{}はハッシュ付きのURLで出力される
+        String html = resourceMockMvc.perform(get("/login")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Matcher matcher = Pattern.compile("/css/bootstrap\\.min-[0-9a-f]{32}\\.css").matcher(html);
+        assertTrue(matcher.find());
+
+        // 圧縮版 (mvnのビルド時にJVM内で作成。IDEのみでビルドした場合は存在しないため確認しない) をそのまま返却し、1年間再検証させない
+        assumeTrue(new ClassPathResource("static/css/bootstrap.min.css.br").exists(), "precompressed resources not built");
+        resourceMockMvc.perform(get(matcher.group()).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept-Encoding"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+        resourceMockMvc.perform(get(matcher.group()).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        // ハッシュなしのURLは内容が変わっても同じURLのため、毎回再検証させる
+        resourceMockMvc.perform(get("/css/bootstrap.min.css"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"));
+
+        // ハッシュが内容と一致しない場合は404 (1年間のキャッシュはさせない)
+        resourceMockMvc.perform(get("/css/bootstrap.min-00000000000000000000000000000000.css"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, not(containsString("immutable"))));
+    }
+
+    // 管理用エンドポイントのBasic認証 (ログイン画面と同じく試行回数を制限)
+    @Test
+    void testActuatorBasicThrottled() throws Exception {
+        // 社員番号ごとの上限 (app.login.throttle.code.capacity=5) までは照合して401
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/actuator/metrics").with(httpBasic("basic-throttle-test", "wrong")))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        // 上限を超えた場合は照合せずに429
+        mockMvc.perform(get("/actuator/metrics").with(httpBasic("basic-throttle-test", "wrong")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    // ログイン試行回数の制限 (認証に成功した試行はトークンを戻すため、同じ接続元から上限を超えてログインできる)
+    @Test
+    void testLoginNotThrottledOnSuccess() throws Exception {
+        JdbcTemplate jdbcTemplate = webApplicationContext.getBean(JdbcTemplate.class);
+        String password = webApplicationContext.getBean(PasswordEncoder.class).encode("throttle-test");
+        jdbcTemplate.update("INSERT INTO employees(code,name,role,password,delete_flg,created_at,updated_at)"
+                + " VALUES ('900001','制限　太郎','ADMIN',?,0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP)", password);
+        try {
+            // 接続元アドレスごとの上限 (app.login.throttle.address.capacity=30)、社員番号ごとの上限 (5) を超えて成功する
+            for (int i = 0; i < 35; i++) {
+                mockMvc.perform(login("900001", "throttle-test", "192.0.2.10"))
+                        .andExpect(redirectedUrl("/"));
+            }
+            mockMvc.perform(get("/actuator/metrics").with(httpBasic("900001", "throttle-test")).with(remoteAddress("192.0.2.10")))
+                    .andExpect(status().isOk());
+
+            // 失敗した試行は従来どおり社員番号ごとの上限までで制限する
+            for (int i = 0; i < 5; i++) {
+                mockMvc.perform(login("900001", "wrong", "192.0.2.10"))
+                        .andExpect(redirectedUrl("/login?error"));
+            }
+            mockMvc.perform(login("900001", "throttle-test", "192.0.2.10"))
+                    .andExpect(redirectedUrl("/login?throttled"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM employees WHERE code = '900001'");
+        }
+    }
+
+    // 接続元アドレスを指定したログイン処理
+    private static MockHttpServletRequestBuilder login(String code, String password, String address) {
+        return post("/login").param("username", code).param("password", password).with(csrf()).with(request -> {
+            request.setRemoteAddr(address);
+            return request;
+        });
+    }
 
+    // 接続元アドレスを指定する
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
     }
 
     // ログアウト処理
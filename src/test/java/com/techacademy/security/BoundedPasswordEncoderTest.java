@@ -0,0 +1,62 @@
+package com.techacademy.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+    // まとめてハッシュ化 (引数と同じ順序で返す)
+    @Test
+    void testEncodeAll() {
+
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PrefixPasswordEncoder(null), 2, 10, 1000);
+        try {
+            assertEquals(encoder.encodeAll(List.of("a", "b", "c", "d", "e"), 1000),
+                    List.of("#a", "#b", "#c", "#d", "#e"));
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    // まとめてハッシュ化 (待ち時間の上限を超えた分のみnull)
+    @Test
+    void testEncodeAllBusy() {
+
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PrefixPasswordEncoder(release), 1, 10, 1000);
+        try {
+            assertEquals(encoder.encodeAll(List.of("a", "slow", "b"), 200), Arrays.asList("#a", null, "#b"));
+        } finally {
+            release.countDown();
+            encoder.destroy();
+        }
+    }
+
+    // 先頭に#を付けるだけのPasswordEncoder ("slow"はreleaseまで待つ)
+    private record PrefixPasswordEncoder(CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if ("slow".contentEquals(rawPassword)) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "#" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
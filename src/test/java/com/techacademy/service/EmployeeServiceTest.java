@@ -2,17 +2,25 @@ package com.techacademy.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.techacademy.constants.ErrorKinds;
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Employee.Role;
+import com.techacademy.metrics.SqlStatementCounter;
+import com.techacademy.repository.EmployeeRepository;
 
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
@@ -21,6 +29,27 @@ class EmployeeServiceTest {
     @Autowired
     private EmployeeService service;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeDirectory employeeDirectory;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportListVersion reportListVersion;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
     @Test
     @WithMockUser
     void testFindAll() {
@@ -62,4 +91,158 @@ class EmployeeServiceTest {
 
     }
 
+    @Test
+    @WithMockUser
+    @Transactional
+    void testDelete() {
+
+        Employee employee = new Employee();
+        employee.setCode("1");
+        employee.setName("煌木　太郎");
+        LocalDateTime now = LocalDateTime.now();
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+        employee.setDeleteFlg(false);
+        employee.setPassword("");
+        employee.setRole(Role.ADMIN);
+
+        // 第2レベルキャッシュに残っている場合は従業員の取得のSQLが発行されないため破棄しておく
+        entityManagerFactory.getCache().evictAll();
+        sqlStatementCounter.start();
+
+        assertEquals(service.delete("2", new UserDetail(employee)), ErrorKinds.SUCCESS);
+
+        // 発行されるSQLは 従業員の取得・従業員の論理削除・日報の一括論理削除 の3文のみ
+        assertEquals(statementCount(), 3);
+
+        // 日報が論理削除されていること
+        Integer liveReports = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reports WHERE employee_code = '2' AND delete_flg = 0", Integer.class);
+        assertEquals(liveReports, 0);
+
+        // 従業員の削除に合わせて論理削除したことが記録されていること (復元の対象)
+        Integer markedReports = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reports WHERE employee_code = '2' AND deleted_with_employee = 1", Integer.class);
+        assertEquals(markedReports, 1);
+    }
+
+    // 従業員の削除時に論理削除した日報の復元 (削除前に個別に削除していた日報は復元しない)
+    @Test
+    @WithMockUser
+    @Transactional
+    void testRestoreReports() {
+
+        // 従業員の削除前に個別に削除していた日報 (登録済みの日報 (data.sql) と同じ日付)
+        jdbcTemplate.update("INSERT INTO reports(id,report_date,title,content,employee_code,delete_flg,created_at,updated_at)"
+                + " VALUES (900001,CURRENT_DATE,'削除済みのタイトル','削除済みの内容','2',1,'2000-01-01','2000-01-01')");
+
+        Employee admin = new Employee();
+        admin.setCode("1");
+        admin.setPassword("");
+        admin.setRole(Role.ADMIN);
+        assertEquals(service.delete("2", new UserDetail(admin)), ErrorKinds.SUCCESS);
+
+        // 更新日時が従業員の削除日時と一致していても、個別に削除した日報は復元の対象外
+        jdbcTemplate.update("UPDATE reports SET updated_at = (SELECT updated_at FROM employees WHERE code = '2') WHERE id = 900001");
+
+        sqlStatementCounter.start();
+
+        // 1回のUPDATE文で、従業員の削除時に論理削除した日報のみを復元する (同日の日報が2件とならない)
+        assertEquals(reportService.restoreByEmployee("2"), 1);
+        assertEquals(statementCount(), 1);
+
+        assertEquals(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reports WHERE employee_code = '2' AND delete_flg = 0", Integer.class), 1);
+        assertEquals(jdbcTemplate.queryForObject("SELECT delete_flg FROM reports WHERE id = 900001", Boolean.class), true);
+    }
+
+    // 日報の付け替え (1回のUPDATE文。コミット後に日報一覧のバージョンが進む)
+    @Test
+    void testReassignReports() {
+
+        jdbcTemplate.update("INSERT INTO employees(code,name,role,password,delete_flg,created_at,updated_at)"
+                + " VALUES ('REASSIGN','付替　太郎','GENERAL','',0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP)");
+        try {
+            String version = reportListVersion.getVersion();
+            sqlStatementCounter.start();
+
+            assertEquals(reportService.reassignEmployee("2", "REASSIGN"), 1);
+            assertEquals(statementCount(), 1);
+            assertNotEquals(reportListVersion.getVersion(), version);
+
+            assertEquals(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM reports WHERE employee_code = 'REASSIGN' AND delete_flg = 0", Integer.class), 1);
+            assertEquals(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM reports WHERE employee_code = '2' AND delete_flg = 0", Integer.class), 0);
+        } finally {
+            jdbcTemplate.update("UPDATE reports SET employee_code = '2' WHERE employee_code = 'REASSIGN'");
+            jdbcTemplate.update("DELETE FROM employees WHERE code = 'REASSIGN'");
+        }
+    }
+
+    // 第2レベルキャッシュ (2回目以降の取得ではSQLを発行しない)
+    @Test
+    void testFindByIdCached() {
+
+        entityManagerFactory.getCache().evictAll();
+        sqlStatementCounter.start();
+
+        // トランザクション外のため、それぞれ別の永続化コンテキストで取得する
+        assertEquals(employeeRepository.findById("1").get().getName(), "煌木　太郎");
+        assertEquals(employeeRepository.findById("1").get().getName(), "煌木　太郎");
+
+        // 2回目は第2レベルキャッシュから取得するため、SQLは1回のみ
+        assertEquals(statementCount(), 1);
+        assertTrue(entityManagerFactory.getCache().contains(Employee.class, "1"));
+    }
+
+    // 論理削除した従業員は第2レベルキャッシュから取得されないこと
+    @Test
+    @WithMockUser
+    void testDeleteEvictsCache() {
+
+        jdbcTemplate.update("INSERT INTO employees(code,name,role,password,delete_flg,created_at,updated_at)"
+                + " VALUES ('L2TEST','キャッシュ　太郎','GENERAL','',0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP)");
+        try {
+            employeeDirectory.reloadExternalChanges();
+
+            // キャッシュに載せる
+            assertTrue(employeeRepository.findLiveById("L2TEST").isPresent());
+            assertTrue(entityManagerFactory.getCache().contains(Employee.class, "L2TEST"));
+
+            Employee admin = new Employee();
+            admin.setCode("1");
+            admin.setPassword("");
+            admin.setRole(Role.ADMIN);
+            assertEquals(service.delete("L2TEST", new UserDetail(admin)), ErrorKinds.SUCCESS);
+
+            // コミット後に破棄され、DBからも@SQLRestrictionにより取得されない
+            assertFalse(entityManagerFactory.getCache().contains(Employee.class, "L2TEST"));
+            assertTrue(employeeRepository.findLiveById("L2TEST").isEmpty());
+            assertNull(service.findByCode("L2TEST"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM employees WHERE code = 'L2TEST'");
+            employeeDirectory.reloadExternalChanges();
+        }
+    }
+
+    // 従業員名簿から返却した従業員を変更しても、名簿 (他のリクエスト) には影響しないこと
+    @Test
+    void testDirectoryReturnsCopies() {
+
+        Employee employee = employeeDirectory.findByCode("1");
+        employee.setName("変更　太郎");
+        assertEquals(employeeDirectory.findByCode("1").getName(), "煌木　太郎");
+
+        List<Employee> employees = employeeDirectory.findAll();
+        String name = employees.get(0).getName();
+        employees.get(0).setName("変更　太郎");
+        assertEquals(employeeDirectory.findAll().get(0).getName(), name);
+        assertThrows(UnsupportedOperationException.class, () -> employees.remove(0));
+    }
+
+    // 集計開始 (sqlStatementCounter.start()) 以降にこのスレッドで発行したSQLの件数
+    private int statementCount() {
+        return sqlStatementCounter.stop().values().stream().mapToInt(Integer::intValue).sum();
+    }
 }
@@ -0,0 +1,151 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+
+@SpringBootTest(properties = { "app.report.group-commit.enabled=true", "app.report.group-commit.max-delay-ms=200" })
+@ExtendWith(SpringExtension.class)
+class ReportSubmissionBatcherTest {
+
+    // テストで登録する日報の日付 (この日付より前)
+    private static final LocalDate TEST_DATE = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    private ReportSubmissionBatcher batcher;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void afterEach() {
+        // コミットされるため、登録した日報を削除する
+        jdbcTemplate.update("DELETE FROM reports WHERE report_date < ?", TEST_DATE);
+    }
+
+    // 同時に提出された日報をまとめて登録
+    @Test
+    void testSubmit() throws Exception {
+
+        long batchCount = batcher.getBatchCount();
+        Employee employee = employeeService.findByCode("2");
+
+        // 12件を同時に提出 (最後の2件は同じ日付)
+        List<ErrorKinds> results = submitConcurrently(employee, 12, i -> TEST_DATE.minusDays(Math.min(i, 10) + 1));
+
+        assertEquals(results.stream().filter(ErrorKinds.SUCCESS::equals).count(), 11);
+        assertEquals(results.stream().filter(ErrorKinds.DATECHECK_ERROR::equals).count(), 1);
+
+        // 1件ずつではなくまとめてコミットされていること
+        assertTrue(batcher.getBatchCount() - batchCount < 11);
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reports WHERE employee_code = '2' AND report_date < ?",
+                Long.class, TEST_DATE), 11);
+    }
+
+    // 登録済みの日付を含む場合 (1件ずつ登録し直し、登録済みの日付のみDATECHECK_ERROR)
+    @Test
+    void testSubmitDuplicate() throws Exception {
+
+        long retryCount = batcher.getRetryCount();
+        Employee employee = employeeService.findByCode("2");
+
+        // 1件目は登録済みの日報 (data.sql) と同じ日付
+        List<ErrorKinds> results = submitConcurrently(employee, 3, i -> i == 0 ? LocalDate.now() : TEST_DATE.minusDays(i));
+
+        assertEquals(results, List.of(ErrorKinds.DATECHECK_ERROR, ErrorKinds.SUCCESS, ErrorKinds.SUCCESS));
+        assertTrue(batcher.getRetryCount() > retryCount);
+    }
+
+    // 登録中にErrorが発生した場合 (提出元には例外を返し、以降の提出は引き続きまとめて登録する)
+    @Test
+    void testSubmitAfterError() throws Exception {
+
+        AtomicInteger calls = new AtomicInteger();
+        ReportSubmissionBatcher stubBatcher = new ReportSubmissionBatcher(new ReportService(null, null, null) {
+            @Override
+            public void saveAll(List<Report> reports) {
+                if (calls.incrementAndGet() == 1) {
+                    throw new AssertionError("saveAll failed");
+                }
+            }
+        }, true, 50, 5, 10, 10000);
+        try {
+            assertThrows(AssertionError.class, () -> stubBatcher.submit(new Report()));
+            assertEquals(stubBatcher.submit(new Report()), ErrorKinds.SUCCESS);
+            assertEquals(calls.get(), 2);
+        } finally {
+            stubBatcher.destroy();
+        }
+    }
+
+    // 結果を待ちきれない場合 (提出元は待ち続けずにREPORT_SUBMIT_BUSY_ERRORを返す)
+    @Test
+    void testSubmitTimeout() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        ReportSubmissionBatcher stubBatcher = new ReportSubmissionBatcher(new ReportService(null, null, null) {
+            @Override
+            public void saveAll(List<Report> reports) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, true, 50, 5, 10, 200);
+        try {
+            assertEquals(stubBatcher.submit(new Report()), ErrorKinds.REPORT_SUBMIT_BUSY_ERROR);
+        } finally {
+            release.countDown();
+            stubBatcher.destroy();
+        }
+    }
+
+    private List<ErrorKinds> submitConcurrently(Employee employee, int count, IntFunction<LocalDate> reportDate)
+            throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        try {
+            List<Future<ErrorKinds>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Report report = new Report();
+                report.setEmployee(employee);
+                report.setReportDate(reportDate.apply(i));
+                report.setTitle("グループコミットのタイトル" + i);
+                report.setContent("グループコミットの内容" + i);
+                futures.add(executor.submit(() -> batcher.submit(report)));
+            }
+
+            List<ErrorKinds> results = new ArrayList<>();
+            for (Future<ErrorKinds> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}